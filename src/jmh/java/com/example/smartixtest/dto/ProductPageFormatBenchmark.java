@@ -0,0 +1,116 @@
+package com.example.smartixtest.dto;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+// Размер и время сериализации страницы ProductDto по форматам ответа: JSON, CBOR, Smile,
+// со сжатием gzip и без, со всеми полями и с ?fields=id,title,price.
+// Размер тела в байтах - вспомогательный счётчик bytes в результатах JMH
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProductPageFormatBenchmark {
+
+    @Param({"20", "100"})
+    private int pageSize;
+    
+    @Param({"json", "cbor", "smile"})
+    private String format;
+    
+    @Param({"all", "id,title,price"})
+    private String fields;
+    
+    @Param({"false", "true"})
+    private boolean gzip;
+    
+    private ObjectWriter writer;
+    private PageResponse<ProductDto> page;
+    private ByteArrayOutputStream buffer;
+    
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Size {
+        
+        public long bytes;
+    }
+    
+    @Setup
+    public void setUp() {
+        // Те же миксин и фильтр полей, что SerializationConfig добавляет в ObjectMapper приложения
+        Jackson2ObjectMapperBuilder builder = switch (format) {
+            case "cbor" -> Jackson2ObjectMapperBuilder.cbor();
+            case "smile" -> Jackson2ObjectMapperBuilder.smile();
+            default -> Jackson2ObjectMapperBuilder.json();
+        };
+        ObjectMapper objectMapper = builder
+                .mixIn(ProductDto.class, ProductFields.FilterMixin.class)
+                .filters(ProductFields.all())
+                .build();
+        writer = "all".equals(fields)
+                ? objectMapper.writer()
+                : objectMapper.writer(ProductFields.only(ProductFields.parse(fields)));
+        
+        List<ProductDto> content = new ArrayList<>(pageSize);
+        for (int i = 0; i < pageSize; i++) {
+            content.add(ProductDto.builder()
+                    .id((long) i)
+                    .title("Mens Casual Premium Slim Fit T-Shirts " + i)
+                    .price(BigDecimal.valueOf(2230 + i, 2))
+                    .description("Slim-fitting style, contrast raglan long sleeve, three-button henley placket, "
+                            + "light weight & soft fabric for breathable and comfortable wearing.")
+                    .category("men's clothing")
+                    .image("https://fakestoreapi.com/img/71-3HjGNDUL._AC_SY879._SX._UX._SY._UY_.jpg")
+                    .rating(new RatingDto(4.1, 259 + i))
+                    .version(1L)
+                    .build());
+        }
+        page = PageResponse.<ProductDto>builder()
+                .content(content)
+                .pageNo(0)
+                .pageSize(pageSize)
+                .totalElements(10_000)
+                .totalPages(10_000 / pageSize)
+                .last(false)
+                .build();
+        buffer = new ByteArrayOutputStream(64 * 1024);
+    }
+    
+    @Benchmark
+    public int serialize(Size size) throws IOException {
+        buffer.reset();
+        if (gzip) {
+            try (OutputStream out = new GZIPOutputStream(buffer, 8192)) {
+                writer.writeValue(out, page);
+            }
+        } else {
+            writer.writeValue(buffer, page);
+        }
+        size.bytes = buffer.size();
+        return buffer.size();
+    }
+}
\ No newline at end of file
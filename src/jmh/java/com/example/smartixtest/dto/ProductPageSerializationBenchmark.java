@@ -0,0 +1,80 @@
+package com.example.smartixtest.dto;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Сериализация страницы ProductDto в JSON тем же ObjectMapper, что собирает Spring Boot для ответов
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProductPageSerializationBenchmark {
+
+    @Param({"20", "100"})
+    private int pageSize;
+    
+    private ObjectMapper objectMapper;
+    private JavaType pageType;
+    private PageResponse<ProductDto> page;
+    private byte[] json;
+    
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        pageType = objectMapper.getTypeFactory().constructParametricType(PageResponse.class, ProductDto.class);
+        
+        List<ProductDto> content = new ArrayList<>(pageSize);
+        for (int i = 0; i < pageSize; i++) {
+            content.add(ProductDto.builder()
+                    .id((long) i)
+                    .title("Mens Casual Premium Slim Fit T-Shirts " + i)
+                    .price(BigDecimal.valueOf(2230 + i, 2))
+                    .description("Slim-fitting style, contrast raglan long sleeve, three-button henley placket, "
+                            + "light weight & soft fabric for breathable and comfortable wearing.")
+                    .category("men's clothing")
+                    .image("https://fakestoreapi.com/img/71-3HjGNDUL._AC_SY879._SX._UX._SY._UY_.jpg")
+                    .rating(new RatingDto(4.1, 259 + i))
+                    .build());
+        }
+        page = PageResponse.<ProductDto>builder()
+                .content(content)
+                .pageNo(0)
+                .pageSize(pageSize)
+                .totalElements(10_000)
+                .totalPages(10_000 / pageSize)
+                .last(false)
+                .build();
+        json = objectMapper.writeValueAsBytes(page);
+    }
+    
+    @Benchmark
+    public byte[] serialize() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(page);
+    }
+    
+    @Benchmark
+    public PageResponse<ProductDto> deserialize() throws IOException {
+        return objectMapper.readValue(json, pageType);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,79 @@
+package com.example.smartixtest.mapper;
+
+import com.example.smartixtest.dto.ProductDto;
+import com.example.smartixtest.dto.RatingDto;
+import com.example.smartixtest.model.Category;
+import com.example.smartixtest.model.Product;
+import com.example.smartixtest.model.Rating;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+// Преобразования одного товара в ProductMapper: вызываются на каждый товар импорта и CRUD
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProductMapperBenchmark {
+
+    private final ProductMapper productMapper = new ProductMapper();
+    
+    private ProductDto dto;
+    private Product entity;
+    
+    @Setup
+    public void setUp() {
+        dto = ProductDto.builder()
+                .id(1L)
+                .title("Fjallraven - Foldsack No. 1 Backpack, Fits 15 Laptops")
+                .price(new BigDecimal("109.95"))
+                .description("Your perfect pack for everyday use and walks in the forest. "
+                        + "Stash your laptop (up to 15 inches) in the padded sleeve, your everyday")
+                .category("men's clothing")
+                .image("https://fakestoreapi.com/img/81fPKd-2AYL._AC_SL1500_.jpg")
+                .rating(new RatingDto(3.9, 120))
+                .build();
+        entity = Product.builder()
+                .id(1L)
+                .title(dto.getTitle())
+                .price(dto.getPrice())
+                .description(dto.getDescription())
+                .category(new Category(1L, dto.getCategory()))
+                .image(dto.getImage())
+                .rating(new Rating(3.9, 120))
+                .build();
+    }
+    
+    @Benchmark
+    public Product toEntity() {
+        return productMapper.toEntity(dto);
+    }
+    
+    @Benchmark
+    public ProductDto toDto() {
+        return productMapper.toDto(entity);
+    }
+    
+    @Benchmark
+    public Product updateEntityFromDto() {
+        productMapper.updateEntityFromDto(dto, entity);
+        return entity;
+    }
+    
+    @Benchmark
+    public long contentHash() {
+        return productMapper.contentHash(dto);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,130 @@
+package com.example.smartixtest.search;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Латентность поиска по индексу на синтетическом каталоге. Частоты слов распределены по Ципфу,
+// как в реальных текстах, поэтому есть и очень частые термы с длинными списками вхождений.
+// Запуск: mvn -Pjmh test-compile exec:exec -Djmh.args=InvertedIndexBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms6g", "-Xmx6g"})
+public class InvertedIndexBenchmark {
+
+    private static final int VOCABULARY = 50_000;
+    private static final int CATEGORIES = 40;
+    private static final String[] SYLLABLES = {
+            "ka", "lo", "mi", "ne", "ru", "ta", "vo", "si", "de", "po", "ga", "ble", "tri", "sha", "zen", "mor"};
+    
+    @Param("1000000")
+    private int products;
+    
+    private InvertedIndex index;
+    private String[] words;
+    
+    private SearchQuery commonTerm;
+    private SearchQuery rareTerm;
+    private SearchQuery twoTerms;
+    private SearchQuery prefix;
+    private SearchQuery filtered;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        words = new String[VOCABULARY];
+        for (int i = 0; i < VOCABULARY; i++) {
+            words[i] = word(i);
+        }
+        double[] cumulative = zipf(VOCABULARY);
+        
+        index = new InvertedIndex();
+        StringBuilder text = new StringBuilder();
+        for (int id = 1; id <= products; id++) {
+            String title = sentence(text, random, cumulative, 3 + random.nextInt(4));
+            String description = sentence(text, random, cumulative, 20 + random.nextInt(20));
+            index.add(id, title, description, "category-" + random.nextInt(CATEGORIES),
+                    BigDecimal.valueOf(100 + random.nextInt(100_000), 2));
+        }
+        
+        commonTerm = new SearchQuery(words[5], null, null, null);
+        rareTerm = new SearchQuery(words[20_000], null, null, null);
+        twoTerms = new SearchQuery(words[50] + " " + words[300], null, null, null);
+        prefix = new SearchQuery(words[100] + " " + words[40].substring(0, 3), null, null, null);
+        filtered = new SearchQuery(words[50], "category-7", new BigDecimal("10.00"), new BigDecimal("250.00"));
+    }
+    
+    @Benchmark
+    public SearchHits commonTerm() {
+        return index.search(commonTerm, 0, 20);
+    }
+    
+    @Benchmark
+    public SearchHits rareTerm() {
+        return index.search(rareTerm, 0, 20);
+    }
+    
+    @Benchmark
+    public SearchHits twoTerms() {
+        return index.search(twoTerms, 0, 20);
+    }
+    
+    @Benchmark
+    public SearchHits prefix() {
+        return index.search(prefix, 0, 20);
+    }
+    
+    @Benchmark
+    public SearchHits categoryAndPriceFilter() {
+        return index.search(filtered, 0, 20);
+    }
+    
+    // Уникальное "слово" из слогов по номеру
+    private static String word(int n) {
+        StringBuilder word = new StringBuilder();
+        do {
+            word.append(SYLLABLES[n % SYLLABLES.length]);
+            n /= SYLLABLES.length;
+        } while (n > 0);
+        return word.toString();
+    }
+    
+    private static double[] zipf(int size) {
+        double[] cumulative = new double[size];
+        double sum = 0;
+        for (int i = 0; i < size; i++) {
+            sum += 1.0 / (i + 1);
+            cumulative[i] = sum;
+        }
+        for (int i = 0; i < size; i++) {
+            cumulative[i] /= sum;
+        }
+        return cumulative;
+    }
+    
+    private String sentence(StringBuilder text, Random random, double[] cumulative, int length) {
+        text.setLength(0);
+        for (int i = 0; i < length; i++) {
+            int rank = Arrays.binarySearch(cumulative, random.nextDouble());
+            text.append(words[Math.min(rank < 0 ? -rank - 1 : rank, VOCABULARY - 1)]).append(' ');
+        }
+        return text.toString();
+    }
+}
\ No newline at end of file
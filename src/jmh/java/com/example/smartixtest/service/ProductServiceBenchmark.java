@@ -0,0 +1,127 @@
+package com.example.smartixtest.service;
+
+import com.example.smartixtest.SmartixTestApplication;
+import com.example.smartixtest.dto.CursorPageResponse;
+import com.example.smartixtest.dto.PageResponse;
+import com.example.smartixtest.dto.ProductDto;
+import com.example.smartixtest.dto.RatingDto;
+import com.example.smartixtest.service.impl.ProductImportWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Вызовы сервисов целиком: прокси, транзакция, запрос к БД и сборка DTO.
+// Контекст поднимается на H2 из тестового application.properties, кэш товаров отключён,
+// чтобы getProductById каждый раз доходил до БД
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductServiceBenchmark {
+
+    private static final int CHUNK_SIZE = 500;
+    
+    @Param("10000")
+    private int products;
+    
+    private ConfigurableApplicationContext context;
+    private ProductService productService;
+    private ProductSearchService productSearchService;
+    
+    private long[] ids;
+    private int nextId;
+    private String middleCursor;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(SmartixTestApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.main.banner-mode=off",
+                        "spring.cache.type=none",
+                        "logging.level.com.example.smartixtest=WARN")
+                .run();
+        productService = context.getBean(ProductService.class);
+        productSearchService = context.getBean(ProductSearchService.class);
+        
+        ProductImportWriter writer = context.getBean(ProductImportWriter.class);
+        for (int offset = 0; offset < products; offset += CHUNK_SIZE) {
+            List<ProductDto> chunk = new ArrayList<>(CHUNK_SIZE);
+            for (int i = offset; i < Math.min(offset + CHUNK_SIZE, products); i++) {
+                chunk.add(ProductDto.builder()
+                        .id((long) i + 1)
+                        .title("Product " + i + (i % 3 == 0 ? " backpack" : " jacket"))
+                        .price(BigDecimal.valueOf(100 + i % 50_000, 2))
+                        .description("Synthetic product description " + i)
+                        .category("category-" + i % 20)
+                        .image("https://example.com/" + i + ".jpg")
+                        .rating(new RatingDto(1 + (i % 40) / 10.0, i % 500))
+                        .build());
+            }
+            writer.writeChunk("benchmark", chunk);
+        }
+        
+        // id выдаёт последовательность, поэтому собираем реальные id вместо расчёта диапазона
+        ids = new long[products];
+        int loaded = 0;
+        String cursor = null;
+        do {
+            CursorPageResponse<ProductDto> page = productService.getAllProductsByCursor(cursor, 1000, false);
+            for (ProductDto product : page.getContent()) {
+                ids[loaded++] = product.getId();
+            }
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        middleCursor = productService.getAllProductsByCursor(null, products / 2, false).getNextCursor();
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+    
+    @Benchmark
+    public ProductDto getProductById() {
+        return productService.getProductById(ids[nextId++ % ids.length]);
+    }
+    
+    @Benchmark
+    public PageResponse<ProductDto> getAllProducts() {
+        return productService.getAllProducts(10, 20);
+    }
+    
+    @Benchmark
+    public CursorPageResponse<ProductDto> getAllProductsByCursor() {
+        return productService.getAllProductsByCursor(middleCursor, 20, false);
+    }
+    
+    @Benchmark
+    public PageResponse<ProductDto> getProductsByPriceRange() {
+        return productService.getProductsByPriceRange(new BigDecimal("10.00"), new BigDecimal("50.00"), 2, 20);
+    }
+    
+    @Benchmark
+    public PageResponse<ProductDto> search() {
+        return productSearchService.search("backpack", null, null, null, 0, 20);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,59 @@
+package com.example.smartixtest.service.impl;
+
+import com.example.smartixtest.dto.PageResponse;
+import com.example.smartixtest.dto.ProductDto;
+import com.example.smartixtest.dto.RatingDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Сборка PageResponse из страницы Spring Data в ProductServiceImpl.createPageResponse
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PageResponseBenchmark {
+
+    @Param({"20", "100"})
+    private int pageSize;
+    
+    private Page<ProductDto> page;
+    
+    @Setup
+    public void setUp() {
+        List<ProductDto> content = new ArrayList<>(pageSize);
+        for (int i = 0; i < pageSize; i++) {
+            content.add(ProductDto.builder()
+                    .id((long) i)
+                    .title("Product " + i)
+                    .price(BigDecimal.valueOf(1000 + i, 2))
+                    .category("category-" + i % 4)
+                    .rating(new RatingDto(4.1, i))
+                    .build());
+        }
+        page = new PageImpl<>(content, PageRequest.of(3, pageSize), 10_000);
+    }
+    
+    @Benchmark
+    public PageResponse<ProductDto> createPageResponse() {
+        return ProductServiceImpl.createPageResponse(page);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,38 @@
+package com.example.smartixtest.loadtest;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class EndpointReport {
+
+    private String endpoint;
+    
+    private double targetRps;
+    
+    private long requests;
+    
+    private long errors;
+    
+    // Успешных ответов в секунду за фазу замера
+    private double throughput;
+    
+    private double p50Millis;
+    
+    private double p99Millis;
+    
+    private double p999Millis;
+    
+    private double maxMillis;
+    
+    private double p99SloMillis;
+    
+    private double p999SloMillis;
+    
+    private boolean sloMet;
+}
\ No newline at end of file
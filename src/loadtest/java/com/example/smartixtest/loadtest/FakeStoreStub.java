@@ -0,0 +1,88 @@
+package com.example.smartixtest.loadtest;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Локальная замена fakestoreapi.com: GET /products?offset=&limit= потоково отдаёт срез синтетического каталога
+// в том же формате, что и настоящий API
+public class FakeStoreStub implements AutoCloseable {
+
+    private final SyntheticCatalog catalog;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final AtomicLong servedProducts = new AtomicLong();
+    private final HttpServer server;
+    
+    public FakeStoreStub(SyntheticCatalog catalog) throws IOException {
+        this.catalog = catalog;
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext("/products", this::serveProducts);
+        server.start();
+    }
+    
+    // Делит каталог на sources страниц, по одному URL на источник импорта
+    public List<String> urls(int sources) {
+        List<String> urls = new ArrayList<>(sources);
+        int pageSize = (catalog.size() + sources - 1) / sources;
+        for (int offset = 0; offset < catalog.size(); offset += pageSize) {
+            urls.add("http://127.0.0.1:" + server.getAddress().getPort()
+                    + "/products?offset=" + offset + "&limit=" + pageSize);
+        }
+        return urls;
+    }
+    
+    public long servedProducts() {
+        return servedProducts.get();
+    }
+    
+    private void serveProducts(HttpExchange exchange) throws IOException {
+        Map<String, String> query = query(exchange.getRequestURI());
+        int offset = Integer.parseInt(query.getOrDefault("offset", "0"));
+        int limit = Integer.parseInt(query.getOrDefault("limit", String.valueOf(catalog.size())));
+        int end = (int) Math.min((long) offset + limit, catalog.size());
+        
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        // Длина заранее неизвестна - ответ уходит chunked
+        exchange.sendResponseHeaders(200, 0);
+        try (OutputStream body = exchange.getResponseBody();
+             JsonGenerator generator = objectMapper.getFactory().createGenerator(body)) {
+            generator.writeStartArray();
+            for (int i = offset; i < end; i++) {
+                objectMapper.writeValue(generator, catalog.product(i));
+            }
+            generator.writeEndArray();
+        }
+        servedProducts.addAndGet(Math.max(end - offset, 0));
+    }
+    
+    private static Map<String, String> query(URI uri) {
+        Map<String, String> params = new HashMap<>();
+        if (uri.getRawQuery() != null) {
+            for (String pair : uri.getRawQuery().split("&")) {
+                int separator = pair.indexOf('=');
+                if (separator > 0) {
+                    params.put(pair.substring(0, separator), pair.substring(separator + 1));
+                }
+            }
+        }
+        return params;
+    }
+    
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,56 @@
+package com.example.smartixtest.loadtest;
+
+import java.util.Arrays;
+
+// Задержки одного эндпоинта. Хранит все замеры, перцентили считаются точно по отсортированному массиву
+public class LatencyRecorder {
+
+    private long[] latencies = new long[1024];
+    private int size;
+    private long errors;
+    
+    public synchronized void record(long latencyNanos, boolean success) {
+        if (size == latencies.length) {
+            latencies = Arrays.copyOf(latencies, size * 2);
+        }
+        latencies[size++] = latencyNanos;
+        if (!success) {
+            errors++;
+        }
+    }
+    
+    public synchronized EndpointReport report(String endpoint, double targetRps, double seconds,
+                                              double p99SloMillis, double p999SloMillis) {
+        long[] sorted = Arrays.copyOf(latencies, size);
+        Arrays.sort(sorted);
+        double p99 = percentile(sorted, 0.99);
+        double p999 = percentile(sorted, 0.999);
+        return EndpointReport.builder()
+                .endpoint(endpoint)
+                .targetRps(targetRps)
+                .requests(size)
+                .errors(errors)
+                .throughput((size - errors) / seconds)
+                .p50Millis(percentile(sorted, 0.5))
+                .p99Millis(p99)
+                .p999Millis(p999)
+                .maxMillis(size == 0 ? 0 : millis(sorted[size - 1]))
+                .p99SloMillis(p99SloMillis)
+                .p999SloMillis(p999SloMillis)
+                .sloMet(errors == 0 && p99 <= p99SloMillis && p999 <= p999SloMillis)
+                .build();
+    }
+    
+    // Ближайший ранг: наименьшее значение, не меньше которого q-доля замеров
+    private static double percentile(long[] sorted, double q) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(q * sorted.length);
+        return millis(sorted[Math.max(rank, 1) - 1]);
+    }
+    
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,149 @@
+package com.example.smartixtest.loadtest;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+// Генератор нагрузки с открытой моделью: запросы уходят по расписанию с заданным RPS,
+// не дожидаясь предыдущих ответов. Задержка считается от запланированного момента отправки,
+// поэтому очередь перед перегруженным сервером попадает в перцентили (без coordinated omission)
+@Slf4j
+public class LoadDriver {
+
+    // Описание эндпоинта: request возвращает null, если отправлять пока нечего (например, нечего удалять),
+    // onSuccess получает тело успешного ответа
+    public record Endpoint(String name, double rps, Supplier<HttpRequest> request, Consumer<String> onSuccess) {
+        
+        public Endpoint(String name, double rps, Supplier<HttpRequest> request) {
+            this(name, rps, request, null);
+        }
+    }
+    
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    
+    public HttpClient client() {
+        return client;
+    }
+    
+    // Прогрев, затем замер; в отчёт попадают только запросы, запланированные после прогрева
+    public Map<String, LatencyRecorder> run(List<Endpoint> endpoints, Duration warmup, Duration duration)
+            throws InterruptedException {
+        Map<String, LatencyRecorder> recorders = new LinkedHashMap<>();
+        endpoints.forEach(endpoint -> recorders.put(endpoint.name(), new LatencyRecorder()));
+        
+        long start = System.nanoTime();
+        long measureFrom = start + warmup.toNanos();
+        long end = measureFrom + duration.toNanos();
+        
+        // close() дожидается ответов на уже отправленные запросы
+        try (ExecutorService requests = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Thread> schedulers = new ArrayList<>(endpoints.size());
+            for (Endpoint endpoint : endpoints) {
+                LatencyRecorder recorder = recorders.get(endpoint.name());
+                schedulers.add(Thread.ofPlatform().name("load-" + endpoint.name()).start(
+                        () -> schedule(endpoint, recorder, requests, start, measureFrom, end)));
+            }
+            for (Thread scheduler : schedulers) {
+                scheduler.join();
+            }
+        }
+        return recorders;
+    }
+    
+    // Закрытая модель: clients клиентов шлют запросы один за другим без пауз, эндпоинт выбирается
+    // случайно с весом, равным его RPS. Пропускная способность здесь - результат, а не параметр,
+    // поэтому режим подходит для сравнения конфигураций сервера на одной машине
+    public Map<String, LatencyRecorder> runClosed(List<Endpoint> endpoints, int clients, Duration warmup,
+                                                  Duration duration) throws InterruptedException {
+        Map<String, LatencyRecorder> recorders = new LinkedHashMap<>();
+        endpoints.forEach(endpoint -> recorders.put(endpoint.name(), new LatencyRecorder()));
+        
+        double[] weights = new double[endpoints.size()];
+        double total = 0;
+        for (int i = 0; i < endpoints.size(); i++) {
+            total += Math.max(endpoints.get(i).rps(), 0);
+            weights[i] = total;
+        }
+        double totalWeight = total;
+        
+        long measureFrom = System.nanoTime() + warmup.toNanos();
+        long end = measureFrom + duration.toNanos();
+        try (ExecutorService clientThreads = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int client = 0; client < clients; client++) {
+                clientThreads.submit(() -> {
+                    while (System.nanoTime() < end && !Thread.currentThread().isInterrupted()) {
+                        double pick = ThreadLocalRandom.current().nextDouble(totalWeight);
+                        int index = 0;
+                        while (weights[index] <= pick) {
+                            index++;
+                        }
+                        Endpoint endpoint = endpoints.get(index);
+                        long startedAt = System.nanoTime();
+                        send(endpoint, recorders.get(endpoint.name()), startedAt, startedAt >= measureFrom);
+                    }
+                });
+            }
+        }
+        return recorders;
+    }
+    
+    private void schedule(Endpoint endpoint, LatencyRecorder recorder, ExecutorService requests,
+                          long start, long measureFrom, long end) {
+        if (endpoint.rps() <= 0) {
+            return;
+        }
+        long interval = (long) (1_000_000_000L / endpoint.rps());
+        for (long intended = start; intended < end; intended += interval) {
+            long delay = intended - System.nanoTime();
+            if (delay > 0) {
+                LockSupport.parkNanos(delay);
+            }
+            long scheduledAt = intended;
+            requests.submit(() -> send(endpoint, recorder, scheduledAt, scheduledAt >= measureFrom));
+        }
+    }
+    
+    private void send(Endpoint endpoint, LatencyRecorder recorder, long scheduledAt, boolean measured) {
+        HttpRequest request = endpoint.request().get();
+        if (request == null) {
+            return;
+        }
+        boolean success;
+        try {
+            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            success = response.statusCode() < 400;
+            if (success && endpoint.onSuccess() != null) {
+                endpoint.onSuccess().accept(response.body());
+            }
+            if (!success && log.isDebugEnabled()) {
+                log.debug("{}: статус {} для {}", endpoint.name(), response.statusCode(), request.uri());
+            }
+        } catch (IOException e) {
+            log.debug("{}: ошибка запроса {}: {}", endpoint.name(), request.uri(), e.getMessage());
+            success = false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        if (measured) {
+            recorder.record(System.nanoTime() - scheduledAt, success);
+        }
+    }
+}
\ No newline at end of file
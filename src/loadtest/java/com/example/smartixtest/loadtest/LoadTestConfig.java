@@ -0,0 +1,119 @@
+package com.example.smartixtest.loadtest;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Параметры прогона из аргументов вида --key=value.
+// Аргументы --spring.*, --logging.*, --server.* и --web.* передаются приложению как есть,
+// например --spring.datasource.url=jdbc:postgresql://localhost:5432/smartix для прогона на PostgreSQL
+public class LoadTestConfig {
+
+    private final Map<String, String> options = new LinkedHashMap<>();
+    private final List<String> applicationArgs = new ArrayList<>();
+    
+    public static LoadTestConfig parse(String[] args) {
+        LoadTestConfig config = new LoadTestConfig();
+        for (String arg : args) {
+            if (!arg.startsWith("--")) {
+                throw new IllegalArgumentException("Ожидался аргумент вида --key=value: " + arg);
+            }
+            String option = arg.substring(2);
+            if (option.startsWith("spring.") || option.startsWith("logging.") || option.startsWith("server.")
+                    || option.startsWith("web.")) {
+                config.applicationArgs.add(arg);
+                continue;
+            }
+            int separator = option.indexOf('=');
+            if (separator < 0) {
+                config.options.put(option, "true");
+            } else {
+                config.options.put(option.substring(0, separator), option.substring(separator + 1));
+            }
+        }
+        return config;
+    }
+    
+    // Размер синтетического каталога
+    public int products() {
+        return getInt("products", 10_000);
+    }
+    
+    public int categories() {
+        return getInt("categories", 20);
+    }
+    
+    // Показатель Zipf для распределения товаров по категориям, 0 - равномерно
+    public double categorySkew() {
+        return getDouble("category-skew", 1.0);
+    }
+    
+    // Длина описания в символах, задаёт размер ответа на товар
+    public int descriptionLength() {
+        return getInt("description-length", 200);
+    }
+    
+    // На сколько источников (страниц фида) делится каталог
+    public int sources() {
+        return getInt("sources", 4);
+    }
+    
+    public long seed() {
+        return Long.parseLong(options.getOrDefault("seed", "42"));
+    }
+    
+    public Duration warmup() {
+        return Duration.parse("PT" + options.getOrDefault("warmup", "10s"));
+    }
+    
+    public Duration duration() {
+        return Duration.parse("PT" + options.getOrDefault("duration", "30s"));
+    }
+    
+    // Число клиентов для закрытой модели нагрузки; 0 - открытая модель с заданным RPS
+    public int clients() {
+        return getInt("clients", 0);
+    }
+    
+    // Целевой RPS эндпоинта: --rps.<endpoint> или общий --rps
+    public double rps(String endpoint, double fallback) {
+        String value = options.get("rps." + endpoint);
+        if (value != null) {
+            return Double.parseDouble(value);
+        }
+        return options.containsKey("rps") ? getDouble("rps", fallback) : fallback;
+    }
+    
+    // Порог SLO в миллисекундах: --slo.<endpoint>.p99=... или общий --slo.p99=...
+    public double slo(String endpoint, String percentile, double fallback) {
+        String value = options.get("slo." + endpoint + "." + percentile);
+        if (value == null) {
+            value = options.get("slo." + percentile);
+        }
+        return value == null ? fallback : Double.parseDouble(value);
+    }
+    
+    public String report() {
+        return options.getOrDefault("report", "target/loadtest-report.json");
+    }
+    
+    public Map<String, String> options() {
+        return options;
+    }
+    
+    public String[] applicationArgs() {
+        return applicationArgs.toArray(String[]::new);
+    }
+    
+    private int getInt(String key, int fallback) {
+        String value = options.get(key);
+        return value == null ? fallback : Integer.parseInt(value);
+    }
+    
+    private double getDouble(String key, double fallback) {
+        String value = options.get(key);
+        return value == null ? fallback : Double.parseDouble(value);
+    }
+}
\ No newline at end of file
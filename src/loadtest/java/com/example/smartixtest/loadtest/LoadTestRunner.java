@@ -0,0 +1,346 @@
+package com.example.smartixtest.loadtest;
+
+import com.example.smartixtest.SmartixTestApplication;
+import com.example.smartixtest.dto.ImportJobDto;
+import com.example.smartixtest.dto.ImportJobPhase;
+import com.example.smartixtest.dto.ProductBatchRequest;
+import com.example.smartixtest.dto.ProductDto;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Нагрузочный прогон целиком на одной машине и без сети:
+// stub фида -> приложение на случайном порту -> импорт каталога -> нагрузка на все эндпоинты ProductController -> отчёт.
+// По умолчанию приложение работает на H2 из тестового application.properties
+@Slf4j
+public class LoadTestRunner {
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+    private static final Duration IMPORT_TIMEOUT = Duration.ofMinutes(30);
+    private static final int PAGE_SIZE = 20;
+    private static final int BATCH_SIZE = 10;
+    
+    private final LoadTestConfig config;
+    private final LoadDriver driver = new LoadDriver();
+    private String baseUrl;
+    private ObjectMapper objectMapper;
+    private boolean virtualThreads;
+    
+    public LoadTestRunner(LoadTestConfig config) {
+        this.config = config;
+    }
+    
+    public static void main(String[] args) throws Exception {
+        new LoadTestRunner(LoadTestConfig.parse(args)).run();
+    }
+    
+    public void run() throws Exception {
+        SyntheticCatalog catalog = new SyntheticCatalog(config.products(), config.categories(),
+                config.categorySkew(), config.descriptionLength(), config.seed());
+        
+        try (FakeStoreStub stub = new FakeStoreStub(catalog);
+             ConfigurableApplicationContext context = startApplication(stub.urls(config.sources()))) {
+            baseUrl = "http://127.0.0.1:" + ((WebServerApplicationContext) context).getWebServer().getPort()
+                    + "/api/products";
+            objectMapper = context.getBean(ObjectMapper.class);
+            virtualThreads = context.getEnvironment().getProperty("spring.threads.virtual.enabled", Boolean.class, false);
+            
+            Map<String, Object> importStats = importCatalog();
+            List<Long> ids = loadProductIds();
+            log.info("Импортировано {} товаров, начинается нагрузка: прогрев {}, замер {}, виртуальные потоки: {}",
+                    ids.size(), config.warmup(), config.duration(), virtualThreads);
+            
+            List<LoadDriver.Endpoint> endpoints = endpoints(catalog, ids, (String) importStats.get("jobId"));
+            Map<String, LatencyRecorder> recorders = config.clients() > 0
+                    ? driver.runClosed(endpoints, config.clients(), config.warmup(), config.duration())
+                    : driver.run(endpoints, config.warmup(), config.duration());
+            
+            List<EndpointReport> reports = new ArrayList<>();
+            double seconds = config.duration().toMillis() / 1000.0;
+            for (LoadDriver.Endpoint endpoint : endpoints) {
+                reports.add(recorders.get(endpoint.name()).report(endpoint.name(), endpoint.rps(), seconds,
+                        config.slo(endpoint.name(), "p99", defaultSlo(endpoint.name(), 200)),
+                        config.slo(endpoint.name(), "p999", defaultSlo(endpoint.name(), 500))));
+            }
+            
+            printTable(reports);
+            writeReport(importStats, reports);
+            
+            List<String> violations = reports.stream()
+                    .filter(report -> !report.isSloMet())
+                    .map(EndpointReport::getEndpoint)
+                    .toList();
+            if (!violations.isEmpty()) {
+                throw new IllegalStateException("SLO не выполнен для эндпоинтов: " + violations);
+            }
+        }
+    }
+    
+    private ConfigurableApplicationContext startApplication(List<String> urls) {
+        return new SpringApplicationBuilder(SmartixTestApplication.class)
+                .properties(
+                        "server.port=0",
+                        "spring.main.banner-mode=off",
+                        "spring.jpa.show-sql=false",
+                        "logging.level.root=WARN",
+                        "logging.level.com.example.smartixtest.loadtest=INFO",
+                        "external.api.urls=" + String.join(",", urls))
+                .run(config.applicationArgs());
+    }
+    
+    // Импорт тоже часть прогона: фиксируются время и скорость загрузки всего каталога
+    private Map<String, Object> importCatalog() throws IOException, InterruptedException {
+        long started = System.nanoTime();
+        ImportJobDto job = objectMapper.readValue(
+                send(HttpRequest.newBuilder(URI.create(baseUrl + "/import"))
+                        .POST(HttpRequest.BodyPublishers.noBody())), ImportJobDto.class);
+        
+        long deadline = started + IMPORT_TIMEOUT.toNanos();
+        while (job.getPhase() == ImportJobPhase.QUEUED || job.getPhase() == ImportJobPhase.RUNNING) {
+            if (System.nanoTime() > deadline) {
+                throw new IllegalStateException("Импорт не завершился за " + IMPORT_TIMEOUT);
+            }
+            Thread.sleep(200);
+            job = objectMapper.readValue(send(get("/import/" + job.getJobId())), ImportJobDto.class);
+        }
+        if (job.getPhase() != ImportJobPhase.COMPLETED) {
+            throw new IllegalStateException("Импорт завершился в статусе " + job.getPhase() + ": " + job.getError());
+        }
+        
+        double seconds = (System.nanoTime() - started) / 1e9;
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("jobId", job.getJobId());
+        stats.put("products", job.getProcessed());
+        stats.put("seconds", seconds);
+        stats.put("rowsPerSecond", job.getProcessed() / seconds);
+        stats.put("summary", job.getSummary());
+        return stats;
+    }
+    
+    // Идентификаторы товаров для запросов по id берутся из NDJSON-выгрузки
+    private List<Long> loadProductIds() throws IOException, InterruptedException {
+        List<Long> ids = new ArrayList<>();
+        for (String line : send(get("/export")).split("\n")) {
+            if (!line.isBlank()) {
+                ids.add(objectMapper.readValue(line, ProductDto.class).getId());
+            }
+        }
+        if (ids.isEmpty()) {
+            throw new IllegalStateException("После импорта каталог пуст");
+        }
+        return ids;
+    }
+    
+    private List<LoadDriver.Endpoint> endpoints(SyntheticCatalog catalog, List<Long> ids, String jobId) {
+        Queue<Long> createdIds = new ConcurrentLinkedQueue<>();
+        AtomicInteger newProducts = new AtomicInteger(catalog.size());
+        
+        List<LoadDriver.Endpoint> endpoints = new ArrayList<>();
+        endpoints.add(new LoadDriver.Endpoint("get-by-id", config.rps("get-by-id", 100),
+                () -> get("/" + randomId(ids)).build()));
+        endpoints.add(new LoadDriver.Endpoint("list", config.rps("list", 50),
+                () -> get("?page=" + random().nextInt(Math.max(ids.size() / PAGE_SIZE, 1)) + "&size=" + PAGE_SIZE).build()));
+        endpoints.add(new LoadDriver.Endpoint("list-cursor", config.rps("list-cursor", 50),
+                () -> get("?cursor=&size=" + PAGE_SIZE).build()));
+        endpoints.add(new LoadDriver.Endpoint("filter", config.rps("filter", 50),
+                () -> get("/filter?" + priceRange() + "&size=" + PAGE_SIZE).build()));
+        endpoints.add(new LoadDriver.Endpoint("filter-cursor", config.rps("filter-cursor", 50),
+                () -> get("/filter?" + priceRange() + "&cursor=&size=" + PAGE_SIZE).build()));
+        endpoints.add(new LoadDriver.Endpoint("search", config.rps("search", 50),
+                () -> get("/search?query=" + encode(searchQuery()) + "&size=" + PAGE_SIZE).build()));
+        endpoints.add(new LoadDriver.Endpoint("facets", config.rps("facets", 50),
+                () -> get("/facets?category=" + randomCategory(catalog) + "&category=" + randomCategory(catalog)
+                        + "&" + priceRange() + "&size=" + PAGE_SIZE).build()));
+        endpoints.add(new LoadDriver.Endpoint("categories", config.rps("categories", 20),
+                () -> get("/categories").build()));
+        endpoints.add(new LoadDriver.Endpoint("categories-stats", config.rps("categories-stats", 20),
+                () -> get("/categories/stats").build()));
+        // Полная выгрузка тяжёлая, по умолчанию раз в секунду
+        endpoints.add(new LoadDriver.Endpoint("export", config.rps("export", 1),
+                () -> get("/export").build()));
+        endpoints.add(new LoadDriver.Endpoint("create", config.rps("create", 10),
+                () -> json(HttpRequest.newBuilder(URI.create(baseUrl)), "POST",
+                        newProduct(catalog, newProducts.getAndIncrement())),
+                body -> createdIds.add(readId(body))));
+        endpoints.add(new LoadDriver.Endpoint("update", config.rps("update", 10),
+                () -> {
+                    Long id = randomId(ids);
+                    return json(HttpRequest.newBuilder(URI.create(baseUrl + "/" + id)), "PUT",
+                            newProduct(catalog, (int) (id % catalog.size())));
+                }));
+        // Удаляются только товары, созданные во время прогона
+        endpoints.add(new LoadDriver.Endpoint("delete", config.rps("delete", 5),
+                () -> {
+                    Long id = createdIds.poll();
+                    return id == null ? null : HttpRequest.newBuilder(URI.create(baseUrl + "/" + id))
+                            .timeout(REQUEST_TIMEOUT).DELETE().build();
+                }));
+        endpoints.add(new LoadDriver.Endpoint("batch", config.rps("batch", 2),
+                () -> batch(catalog, ids, newProducts)));
+        // Оценки покупателей - самый частый тип записи
+        endpoints.add(new LoadDriver.Endpoint("rate", config.rps("rate", 200),
+                () -> HttpRequest.newBuilder(URI.create(baseUrl + "/" + randomId(ids) + "/ratings"))
+                        .timeout(REQUEST_TIMEOUT)
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString("{\"rate\":" + random().nextInt(1, 6) + "}"))
+                        .build()));
+        endpoints.add(new LoadDriver.Endpoint("import-status", config.rps("import-status", 5),
+                () -> get("/import/" + jobId).build()));
+        return endpoints;
+    }
+    
+    // Для выгрузки каталога допустимы задержки на порядки выше, чем для коротких запросов
+    private static double defaultSlo(String endpoint, double millis) {
+        return "export".equals(endpoint) ? millis * 20 : millis;
+    }
+    
+    private HttpRequest.Builder get(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(REQUEST_TIMEOUT).GET();
+    }
+    
+    private HttpRequest json(HttpRequest.Builder builder, String method, ProductDto product) {
+        try {
+            return builder.timeout(REQUEST_TIMEOUT)
+                    .header("Content-Type", "application/json")
+                    .method(method, HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(product)))
+                    .build();
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+    
+    private HttpRequest batch(SyntheticCatalog catalog, List<Long> ids, AtomicInteger newProducts) {
+        List<ProductDto> creates = new ArrayList<>(BATCH_SIZE);
+        List<ProductDto> updates = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            creates.add(newProduct(catalog, newProducts.getAndIncrement()));
+            Long id = randomId(ids);
+            ProductDto update = newProduct(catalog, (int) (id % catalog.size()));
+            update.setId(id);
+            updates.add(update);
+        }
+        ProductBatchRequest request = ProductBatchRequest.builder().create(creates).update(updates).build();
+        try {
+            return HttpRequest.newBuilder(URI.create(baseUrl + "/batch"))
+                    .timeout(REQUEST_TIMEOUT)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(request)))
+                    .build();
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+    
+    private String send(HttpRequest.Builder request) throws IOException, InterruptedException {
+        HttpResponse<String> response = driver.client()
+                .send(request.timeout(REQUEST_TIMEOUT).build(), HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() >= 400) {
+            throw new IllegalStateException(response.request().uri() + " вернул статус " + response.statusCode());
+        }
+        return response.body();
+    }
+    
+    private Long readId(String body) {
+        try {
+            return objectMapper.readValue(body, ProductDto.class).getId();
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+    
+    private static ProductDto newProduct(SyntheticCatalog catalog, int index) {
+        ProductDto product = catalog.product(index);
+        product.setId(null);
+        return product;
+    }
+    
+    private static Long randomId(List<Long> ids) {
+        return ids.get(random().nextInt(ids.size()));
+    }
+    
+    private static String randomCategory(SyntheticCatalog catalog) {
+        return SyntheticCatalog.categoryName(random().nextInt(catalog.categories()));
+    }
+    
+    // Узкое окно цен (+5..55% от нижней границы) в диапазоне цен каталога
+    private static String priceRange() {
+        double min = Math.exp(random().nextDouble() * Math.log(900));
+        double max = min * (1.05 + random().nextDouble() * 0.5);
+        return "minPrice=" + BigDecimal.valueOf(min).setScale(2, RoundingMode.HALF_UP)
+                + "&maxPrice=" + BigDecimal.valueOf(max).setScale(2, RoundingMode.HALF_UP);
+    }
+    
+    // Одно или два слова словаря каталога, второе иногда обрезано до префикса
+    private static String searchQuery() {
+        String first = SyntheticCatalog.NOUNS[random().nextInt(SyntheticCatalog.NOUNS.length)];
+        if (random().nextBoolean()) {
+            return first;
+        }
+        String second = SyntheticCatalog.ADJECTIVES[random().nextInt(SyntheticCatalog.ADJECTIVES.length)];
+        return first + " " + (random().nextBoolean() ? second : second.substring(0, Math.min(4, second.length())));
+    }
+    
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+    
+    private static ThreadLocalRandom random() {
+        return ThreadLocalRandom.current();
+    }
+    
+    private void printTable(List<EndpointReport> reports) {
+        StringBuilder table = new StringBuilder(String.format(Locale.ROOT,
+                "%n%-18s %8s %8s %7s %10s %9s %9s %9s %9s  %s%n",
+                "endpoint", "target", "requests", "errors", "thrpt/s", "p50 ms", "p99 ms", "p999 ms", "max ms", "SLO"));
+        for (EndpointReport report : reports) {
+            table.append(String.format(Locale.ROOT,
+                    "%-18s %8.1f %8d %7d %10.1f %9.2f %9.2f %9.2f %9.2f  %s%n",
+                    report.getEndpoint(), report.getTargetRps(), report.getRequests(), report.getErrors(),
+                    report.getThroughput(), report.getP50Millis(), report.getP99Millis(), report.getP999Millis(),
+                    report.getMaxMillis(), report.isSloMet() ? "ok" : "FAIL"));
+        }
+        System.out.println(table);
+    }
+    
+    private void writeReport(Map<String, Object> importStats, List<EndpointReport> reports) throws IOException {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("options", config.options());
+        report.put("warmupSeconds", config.warmup().toSeconds());
+        report.put("durationSeconds", config.duration().toSeconds());
+        report.put("mode", config.clients() > 0 ? "closed" : "open");
+        report.put("virtualThreads", virtualThreads);
+        report.put("import", importStats);
+        report.put("endpoints", reports);
+        
+        Path path = Path.of(config.report());
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(path.toFile(), report);
+        System.out.println("Отчёт: " + path.toAbsolutePath());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,97 @@
+package com.example.smartixtest.loadtest;
+
+import com.example.smartixtest.dto.ProductDto;
+import com.example.smartixtest.dto.RatingDto;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+// Детерминированный синтетический каталог: товар с номером i всегда одинаков при одном seed,
+// поэтому stub отдаёт любой срез фида, не держа каталог в памяти
+public class SyntheticCatalog {
+
+    static final String[] ADJECTIVES = {
+            "classic", "slim", "waterproof", "leather", "cotton", "wireless", "portable", "vintage",
+            "premium", "compact", "solid", "casual", "silver", "golden", "ultra", "thermal"
+    };
+    
+    static final String[] NOUNS = {
+            "backpack", "jacket", "shirt", "ring", "bracelet", "monitor", "drive", "headphones",
+            "keyboard", "sneakers", "dress", "watch", "wallet", "lamp", "speaker", "charger"
+    };
+    
+    private final int size;
+    private final int descriptionLength;
+    private final long seed;
+    // Накопленные вероятности категорий по закону Zipf
+    private final double[] categoryCdf;
+    
+    public SyntheticCatalog(int size, int categories, double categorySkew, int descriptionLength, long seed) {
+        this.size = size;
+        this.descriptionLength = descriptionLength;
+        this.seed = seed;
+        this.categoryCdf = new double[categories];
+        double total = 0;
+        for (int i = 0; i < categories; i++) {
+            total += 1.0 / Math.pow(i + 1, categorySkew);
+            categoryCdf[i] = total;
+        }
+        for (int i = 0; i < categories; i++) {
+            categoryCdf[i] /= total;
+        }
+    }
+    
+    public int size() {
+        return size;
+    }
+    
+    public int categories() {
+        return categoryCdf.length;
+    }
+    
+    public static String categoryName(int index) {
+        return "category-" + index;
+    }
+    
+    // Товар фида с внешним id index + 1; для индексов за пределами каталога - новый товар для POST
+    public ProductDto product(int index) {
+        SplittableRandom random = new SplittableRandom(seed * 31 + index);
+        String adjective = ADJECTIVES[random.nextInt(ADJECTIVES.length)];
+        String noun = NOUNS[random.nextInt(NOUNS.length)];
+        
+        // Цены логарифмически равномерны от 1 до 1000
+        BigDecimal price = BigDecimal.valueOf(Math.exp(random.nextDouble() * Math.log(1000)))
+                .setScale(2, RoundingMode.HALF_UP);
+        
+        return ProductDto.builder()
+                .id((long) index + 1)
+                .title(capitalize(adjective) + " " + noun + " " + index)
+                .price(price)
+                .description(description(random, adjective, noun))
+                .category(categoryName(category(random.nextDouble())))
+                .image("https://fakestore.local/img/" + index + ".jpg")
+                .rating(new RatingDto(Math.round((1 + random.nextDouble() * 4) * 10) / 10.0, random.nextInt(1000)))
+                .build();
+    }
+    
+    private int category(double value) {
+        int position = Arrays.binarySearch(categoryCdf, value);
+        return Math.min(position < 0 ? -position - 1 : position, categoryCdf.length - 1);
+    }
+    
+    private String description(SplittableRandom random, String adjective, String noun) {
+        StringBuilder description = new StringBuilder(descriptionLength + 16);
+        description.append(capitalize(adjective)).append(' ').append(noun);
+        while (description.length() < descriptionLength) {
+            String[] words = random.nextBoolean() ? ADJECTIVES : NOUNS;
+            description.append(' ').append(words[random.nextInt(words.length)]);
+        }
+        return description.toString();
+    }
+    
+    private static String capitalize(String word) {
+        return Character.toUpperCase(word.charAt(0)) + word.substring(1);
+    }
+}
\ No newline at end of file
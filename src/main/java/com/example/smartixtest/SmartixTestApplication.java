@@ -2,8 +2,6 @@ package com.example.smartixtest;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
-import org.springframework.context.annotation.Bean;
-import org.springframework.web.client.RestTemplate;
 
 @SpringBootApplication
 public class SmartixTestApplication {
@@ -11,9 +9,4 @@ public class SmartixTestApplication {
     public static void main(String[] args) {
         SpringApplication.run(SmartixTestApplication.class, args);
     }
-    
-    @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
-    }
 } 
\ No newline at end of file
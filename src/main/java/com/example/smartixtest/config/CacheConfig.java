@@ -0,0 +1,14 @@
+package com.example.smartixtest.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+// Кэш-advice снаружи транзакционного, чтобы инвалидация происходила после коммита.
+// Реализация кэша задаётся через spring.cache.* (по умолчанию Caffeine)
+@Configuration
+@EnableCaching(order = Ordered.HIGHEST_PRECEDENCE)
+public class CacheConfig {
+
+    public static final String PRODUCTS_CACHE = "products";
+}
\ No newline at end of file
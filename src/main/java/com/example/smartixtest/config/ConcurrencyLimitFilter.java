@@ -0,0 +1,80 @@
+package com.example.smartixtest.config;
+
+import com.example.smartixtest.exception.GlobalExceptionHandler;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Date;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+// Ограничивает число одновременно обрабатываемых запросов к API. На виртуальных потоках Tomcat
+// больше не упирается в пул потоков, и без лимита тысячи запросов встали бы в очередь за соединениями к БД.
+// Запрос ждёт свободный слот не дольше queueTimeout, затем получает 503 с Retry-After.
+// Потоковая выгрузка освобождает слот, как только ответ переходит в асинхронный режим
+@Slf4j
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private final Semaphore permits;
+    private final int maxRequests;
+    private final long queueTimeoutNanos;
+    private final Counter rejected;
+    private final ObjectMapper objectMapper;
+    
+    public ConcurrencyLimitFilter(int maxRequests, Duration queueTimeout, Counter rejected, ObjectMapper objectMapper) {
+        this.permits = new Semaphore(maxRequests);
+        this.maxRequests = maxRequests;
+        this.queueTimeoutNanos = queueTimeout.toNanos();
+        this.rejected = rejected;
+        this.objectMapper = objectMapper;
+    }
+    
+    public int activeRequests() {
+        return maxRequests - permits.availablePermits();
+    }
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(queueTimeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            reject(request, response);
+            return;
+        }
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            permits.release();
+        }
+    }
+    
+    private void reject(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        rejected.increment();
+        log.debug("Запрос {} {} отклонён: занято {} из {} слотов", request.getMethod(), request.getRequestURI(),
+                activeRequests(), maxRequests);
+        
+        response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+        response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), new GlobalExceptionHandler.ErrorDetails(
+                new Date(),
+                "Сервис перегружен, повторите запрос позже",
+                "uri=" + request.getRequestURI()));
+    }
+}
\ No newline at end of file
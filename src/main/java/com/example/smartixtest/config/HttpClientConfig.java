@@ -0,0 +1,34 @@
+package com.example.smartixtest.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+
+// HTTP-клиент для внешних фидов: JDK HttpClient держит пул соединений,
+// таймауты задаются через external.api.*
+@Configuration
+public class HttpClientConfig {
+
+    @Bean
+    public HttpClient externalApiHttpClient(
+            @Value("${external.api.connect-timeout:5s}") Duration connectTimeout) {
+        return HttpClient.newBuilder()
+                .connectTimeout(connectTimeout)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+    }
+    
+    @Bean
+    public RestTemplate restTemplate(
+            HttpClient externalApiHttpClient,
+            @Value("${external.api.read-timeout:30s}") Duration readTimeout) {
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(externalApiHttpClient);
+        requestFactory.setReadTimeout(readTimeout);
+        return new RestTemplate(requestFactory);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,50 @@
+package com.example.smartixtest.config;
+
+import com.example.smartixtest.metrics.SqlMetricsFilter;
+import com.example.smartixtest.metrics.SqlStatementCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.beans.BeanUtils;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.util.ClassUtils;
+
+// Метрики поверх автоконфигурации actuator: таймеры HTTP, пула соединений, кэша и @Timed
+// настраиваются в application.properties, здесь - подсчёт SQL-запросов
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer sqlStatementCounter(MeterRegistry meterRegistry) {
+        return properties -> {
+            StatementInspector existing = existingInspector(properties.get(AvailableSettings.STATEMENT_INSPECTOR));
+            properties.put(AvailableSettings.STATEMENT_INSPECTOR, new SqlStatementCounter(meterRegistry, existing));
+        };
+    }
+    
+    @Bean
+    public FilterRegistrationBean<SqlMetricsFilter> sqlMetricsFilter(MeterRegistry meterRegistry) {
+        FilterRegistrationBean<SqlMetricsFilter> registration =
+                new FilterRegistrationBean<>(new SqlMetricsFilter(meterRegistry));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+    
+    // statement_inspector из spring.jpa.properties может быть задан экземпляром, классом или именем класса
+    private static StatementInspector existingInspector(Object setting) {
+        if (setting instanceof StatementInspector inspector) {
+            return inspector;
+        }
+        if (setting instanceof Class<?> type) {
+            return (StatementInspector) BeanUtils.instantiateClass(type);
+        }
+        if (setting instanceof String name && !name.isBlank()) {
+            return (StatementInspector) BeanUtils.instantiateClass(ClassUtils.resolveClassName(name.trim(), null));
+        }
+        return null;
+    }
+}
\ No newline at end of file
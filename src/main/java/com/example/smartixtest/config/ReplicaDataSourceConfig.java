@@ -0,0 +1,73 @@
+package com.example.smartixtest.config;
+
+import com.example.smartixtest.datasource.ReplicaLagMonitor;
+import com.example.smartixtest.datasource.ReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Чтение с реплик включается, если задан datasource.replicas.urls. Primary настраивается
+// обычными spring.datasource.*, реплики берут настройки пула primary (spring.datasource.hikari.*).
+// Без реплик DataSource создаёт автоконфигурация Spring Boot, как раньше
+@Configuration
+@ConditionalOnProperty(name = "datasource.replicas.urls")
+public class ReplicaDataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+    
+    @Bean
+    public ReplicaRoutingDataSource routingDataSource(
+            HikariDataSource primaryDataSource,
+            @Value("${datasource.replicas.urls}") List<String> urls,
+            @Value("${datasource.replicas.username:}") String username,
+            @Value("${datasource.replicas.password:}") String password) {
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        for (int i = 0; i < urls.size(); i++) {
+            // Пул создаётся при первом запросе: недоступная при старте реплика не мешает запуску
+            HikariDataSource replica = new HikariDataSource();
+            primaryDataSource.copyStateTo(replica);
+            replica.setPoolName("replica-" + i);
+            replica.setJdbcUrl(urls.get(i).trim());
+            if (!username.isEmpty()) {
+                replica.setUsername(username);
+                replica.setPassword(password);
+            }
+            replica.setReadOnly(true);
+            replicas.put(replica.getPoolName(), replica);
+        }
+        return new ReplicaRoutingDataSource(primaryDataSource, replicas);
+    }
+    
+    // JPA, Flyway и JdbcTemplate работают через этот DataSource; Flyway и транзакции записи идут на primary
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource routingDataSource) {
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+    
+    @Bean
+    public ReplicaLagMonitor replicaLagHealthIndicator(
+            ReplicaRoutingDataSource routingDataSource,
+            @Value("${datasource.replicas.lag-query}") String lagQuery,
+            @Value("${datasource.replicas.max-lag:5s}") Duration maxLag,
+            MeterRegistry meterRegistry) {
+        return new ReplicaLagMonitor(routingDataSource, lagQuery, maxLag, meterRegistry);
+    }
+}
\ No newline at end of file
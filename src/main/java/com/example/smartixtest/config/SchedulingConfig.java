@@ -0,0 +1,11 @@
+package com.example.smartixtest.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+// Периодические задачи (запись накопленных оценок). При spring.threads.virtual.enabled
+// планировщик Spring Boot выполняет их на виртуальных потоках
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
\ No newline at end of file
@@ -0,0 +1,37 @@
+package com.example.smartixtest.config;
+
+import com.example.smartixtest.dto.ProductDto;
+import com.example.smartixtest.dto.ProductFields;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+// Форматы ответов: JSON по умолчанию, CBOR и Smile по заголовку Accept.
+// Бинарные конвертеры собираются из того же builder, что и JSON, поэтому настройки Jackson,
+// миксины и фильтр полей у всех форматов общие
+@Configuration
+public class SerializationConfig {
+
+    @Bean
+    public Jackson2ObjectMapperBuilderCustomizer productFieldsCustomizer() {
+        return builder -> builder
+                .mixIn(ProductDto.class, ProductFields.FilterMixin.class)
+                .filters(ProductFields.all());
+    }
+    
+    // Jackson2ObjectMapperBuilder в Spring Boot - prototype, каждый конвертер получает свой экземпляр
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+    
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+    }
+}
\ No newline at end of file
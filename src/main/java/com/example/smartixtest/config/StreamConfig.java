@@ -0,0 +1,21 @@
+package com.example.smartixtest.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+// Мост между потоковым API и блокирующим JPA: запросы к БД идут на ограниченном пуле,
+// а поток веб-сервера освобождается сразу после возврата Flux/Mono из контроллера.
+// Потоков не больше, чем соединений в пуле, переполненная очередь даёт 503
+@Configuration
+public class StreamConfig {
+
+    @Bean(destroyMethod = "dispose")
+    public Scheduler productStreamScheduler(
+            @Value("${products.stream.max-threads:10}") int maxThreads,
+            @Value("${products.stream.max-queued:10000}") int maxQueued) {
+        return Schedulers.newBoundedElastic(maxThreads, maxQueued, "product-stream");
+    }
+}
\ No newline at end of file
@@ -0,0 +1,40 @@
+package com.example.smartixtest.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import java.time.Duration;
+
+// Back-pressure для API: лимит одновременных запросов поверх пула соединений.
+// Actuator под лимит не попадает, чтобы health и метрики отвечали и под перегрузкой
+@Configuration
+public class WebConfig {
+
+    @Bean
+    public FilterRegistrationBean<ConcurrencyLimitFilter> concurrencyLimitFilter(
+            @Value("${web.concurrency.max-requests:256}") int maxRequests,
+            @Value("${web.concurrency.queue-timeout:1s}") Duration queueTimeout,
+            MeterRegistry meterRegistry,
+            ObjectMapper objectMapper) {
+        Counter rejected = Counter.builder("web.requests.rejected")
+                .description("Запросы, отклонённые лимитом одновременных запросов")
+                .register(meterRegistry);
+        ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(maxRequests, queueTimeout, rejected, objectMapper);
+        Gauge.builder("web.requests.active", filter, ConcurrencyLimitFilter::activeRequests)
+                .description("Одновременно обрабатываемые запросы к API")
+                .register(meterRegistry);
+        
+        FilterRegistrationBean<ConcurrencyLimitFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.addUrlPatterns("/api/*");
+        // После фильтра http.server.requests, чтобы отказы 503 попадали в метрики, и до остальных фильтров
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 5);
+        return registration;
+    }
+}
\ No newline at end of file
@@ -1,19 +1,38 @@
 package com.example.smartixtest.controller;
 
+import com.example.smartixtest.dto.CategoryStatsDto;
+import com.example.smartixtest.dto.CursorPageResponse;
+import com.example.smartixtest.dto.FacetSearchResponse;
+import com.example.smartixtest.dto.ImportJobDto;
 import com.example.smartixtest.dto.PageResponse;
+import com.example.smartixtest.dto.ProductBatchRequest;
+import com.example.smartixtest.dto.ProductBatchResponse;
 import com.example.smartixtest.dto.ProductDto;
+import com.example.smartixtest.dto.RatingEventDto;
+import com.example.smartixtest.service.ImportJobService;
+import com.example.smartixtest.service.ProductBatchService;
+import com.example.smartixtest.service.ProductFacetService;
+import com.example.smartixtest.service.ProductSearchService;
 import com.example.smartixtest.service.ProductService;
+import com.example.smartixtest.service.RatingService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.math.BigDecimal;
+import java.net.URI;
 import java.util.List;
+import java.util.Set;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/api/products")
@@ -22,12 +41,35 @@ import java.util.List;
 public class ProductController {
     
     private final ProductService productService;
+    private final ImportJobService importJobService;
+    private final ProductSearchService productSearchService;
+    private final ProductFacetService productFacetService;
+    private final ProductBatchService productBatchService;
+    private final RatingService ratingService;
     
     @PostMapping("/import")
-    @Operation(summary = "Импорт товаров из внешнего API")
-    public ResponseEntity<List<ProductDto>> importProducts() {
-        List<ProductDto> importedProducts = productService.importProductsFromExternalApi();
-        return ResponseEntity.status(HttpStatus.CREATED).body(importedProducts);
+    @Operation(summary = "Запуск фонового импорта товаров из внешнего API")
+    public ResponseEntity<ImportJobDto> importProducts() {
+        ImportJobDto job = importJobService.startImport();
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/products/import/" + job.getJobId()))
+                .body(job);
+    }
+    
+    @GetMapping("/import/{jobId}")
+    @Operation(summary = "Статус задачи импорта")
+    public ResponseEntity<ImportJobDto> getImportJob(
+            @Parameter(description = "ID задачи импорта")
+            @PathVariable String jobId) {
+        return ResponseEntity.ok(importJobService.getJob(jobId));
+    }
+    
+    @DeleteMapping("/import/{jobId}")
+    @Operation(summary = "Отмена задачи импорта")
+    public ResponseEntity<ImportJobDto> cancelImportJob(
+            @Parameter(description = "ID задачи импорта")
+            @PathVariable String jobId) {
+        return ResponseEntity.ok(importJobService.cancelJob(jobId));
     }
     
     @PostMapping
@@ -37,13 +79,37 @@ public class ProductController {
         return ResponseEntity.status(HttpStatus.CREATED).body(createdProduct);
     }
     
+    @PostMapping("/batch")
+    @Operation(summary = "Пакетное создание, обновление и удаление товаров с результатом по каждому элементу")
+    public ResponseEntity<ProductBatchResponse> applyBatch(@RequestBody ProductBatchRequest request) {
+        return ResponseEntity.ok(productBatchService.apply(request));
+    }
+    
     @GetMapping("/{id}")
-    @Operation(summary = "Получение товара по ID")
+    @Operation(summary = "Получение товара по ID (ETag, If-None-Match -> 304)")
     public ResponseEntity<ProductDto> getProductById(
             @Parameter(description = "ID товара") 
-            @PathVariable Long id) {
-        ProductDto productDto = productService.getProductById(id);
-        return ResponseEntity.ok(productDto);
+            @PathVariable Long id,
+            WebRequest request) {
+        // Клиенту с актуальной копией хватает одного запроса версии по первичному ключу
+        if (request.getHeader(HttpHeaders.IF_NONE_MATCH) != null) {
+            long version = productService.getProductVersion(id);
+            if (request.checkNotModified(ProductETags.of(id, version, ratingService.pendingCount(id, version)))) {
+                return null;
+            }
+        }
+        ProductDto productDto = ratingService.withLiveRating(productService.getProductById(id));
+        return ResponseEntity.ok().eTag(eTag(productDto)).body(productDto);
+    }
+    
+    @PostMapping("/{id}/ratings")
+    @Operation(summary = "Оценка товара покупателем (запись в БД отложенная, рейтинг в ответах обновляется сразу)")
+    public ResponseEntity<Void> rateProduct(
+            @Parameter(description = "ID товара")
+            @PathVariable Long id,
+            @Valid @RequestBody RatingEventDto ratingEvent) {
+        ratingService.addRating(id, ratingEvent.getRate());
+        return ResponseEntity.accepted().build();
     }
     
     @GetMapping
@@ -54,17 +120,39 @@ public class ProductController {
             @Parameter(description = "Размер страницы") 
             @RequestParam(defaultValue = "10") int size) {
         PageResponse<ProductDto> pageResponse = productService.getAllProducts(page, size);
-        return ResponseEntity.ok(pageResponse);
+        pageResponse.setContent(ratingService.withLiveRatings(pageResponse.getContent()));
+        // При совпадении с If-None-Match ответ 304 уходит без сериализации страницы
+        return ResponseEntity.ok().eTag(ProductETags.of(pageResponse)).body(pageResponse);
+    }
+    
+    @GetMapping(params = "cursor")
+    @Operation(summary = "Получение списка товаров с курсорной пагинацией")
+    public ResponseEntity<CursorPageResponse<ProductDto>> getAllProductsByCursor(
+            @Parameter(description = "Курсор из nextCursor предыдущей страницы (пустой для первой страницы)")
+            @RequestParam String cursor,
+            @Parameter(description = "Размер страницы")
+            @RequestParam(defaultValue = "10") int size,
+            @Parameter(description = "Посчитать общее количество товаров")
+            @RequestParam(defaultValue = "false") boolean withTotal) {
+        CursorPageResponse<ProductDto> pageResponse = productService.getAllProductsByCursor(cursor, size, withTotal);
+        pageResponse.setContent(ratingService.withLiveRatings(pageResponse.getContent()));
+        return ResponseEntity.ok().eTag(ProductETags.of(pageResponse)).body(pageResponse);
     }
     
     @PutMapping("/{id}")
-    @Operation(summary = "Обновление существующего товара")
+    @Operation(summary = "Обновление существующего товара (If-Match или version - только при совпадении версии)")
     public ResponseEntity<ProductDto> updateProduct(
             @Parameter(description = "ID товара") 
             @PathVariable Long id,
+            @Parameter(description = "ETag товара из предыдущего ответа")
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @Valid @RequestBody ProductDto productDto) {
-        ProductDto updatedProduct = productService.updateProduct(id, productDto);
-        return ResponseEntity.ok(updatedProduct);
+        Long expectedVersion = ProductETags.expectedVersion(id, ifMatch);
+        if (expectedVersion != null) {
+            productDto.setVersion(expectedVersion);
+        }
+        ProductDto updatedProduct = ratingService.withLiveRating(productService.updateProduct(id, productDto));
+        return ResponseEntity.ok().eTag(eTag(updatedProduct)).body(updatedProduct);
     }
     
     @DeleteMapping("/{id}")
@@ -89,7 +177,91 @@ public class ProductController {
             @RequestParam(defaultValue = "10") int size) {
         PageResponse<ProductDto> pageResponse = 
                 productService.getProductsByPriceRange(minPrice, maxPrice, page, size);
-        return ResponseEntity.ok(pageResponse);
+        pageResponse.setContent(ratingService.withLiveRatings(pageResponse.getContent()));
+        return ResponseEntity.ok().eTag(ProductETags.of(pageResponse)).body(pageResponse);
+    }
+    
+    @GetMapping("/search")
+    @Operation(summary = "Полнотекстовый поиск товаров по названию и описанию")
+    public ResponseEntity<PageResponse<ProductDto>> searchProducts(
+            @Parameter(description = "Поисковый запрос, последнее слово ищется по префиксу")
+            @RequestParam String query,
+            @Parameter(description = "Категория")
+            @RequestParam(required = false) String category,
+            @Parameter(description = "Минимальная цена")
+            @RequestParam(required = false) BigDecimal minPrice,
+            @Parameter(description = "Максимальная цена")
+            @RequestParam(required = false) BigDecimal maxPrice,
+            @Parameter(description = "Номер страницы (от 0)")
+            @RequestParam(defaultValue = "0") int page,
+            @Parameter(description = "Размер страницы")
+            @RequestParam(defaultValue = "10") int size) {
+        PageResponse<ProductDto> pageResponse =
+                productSearchService.search(query, category, minPrice, maxPrice, page, size);
+        pageResponse.setContent(ratingService.withLiveRatings(pageResponse.getContent()));
+        return ResponseEntity.ok().eTag(ProductETags.of(pageResponse)).body(pageResponse);
+    }
+    
+    @GetMapping("/facets")
+    @Operation(summary = "Фильтрация по категориям, цене и рейтингу со счётчиками фасетов")
+    public ResponseEntity<FacetSearchResponse> filterWithFacets(
+            @Parameter(description = "Категории (можно несколько)")
+            @RequestParam(name = "category", required = false) Set<String> categories,
+            @Parameter(description = "Минимальная цена")
+            @RequestParam(required = false) BigDecimal minPrice,
+            @Parameter(description = "Максимальная цена")
+            @RequestParam(required = false) BigDecimal maxPrice,
+            @Parameter(description = "Минимальный рейтинг")
+            @RequestParam(required = false) Double minRate,
+            @Parameter(description = "Минимальное количество оценок")
+            @RequestParam(required = false) Integer minCount,
+            @Parameter(description = "Номер страницы (от 0)")
+            @RequestParam(defaultValue = "0") int page,
+            @Parameter(description = "Размер страницы")
+            @RequestParam(defaultValue = "10") int size) {
+        FacetSearchResponse response =
+                productFacetService.filter(categories, minPrice, maxPrice, minRate, minCount, page, size);
+        response.setContent(ratingService.withLiveRatings(response.getContent()));
+        return ResponseEntity.ok().eTag(ProductETags.of(response)).body(response);
+    }
+    
+    @GetMapping(value = "/filter", params = "cursor")
+    @Operation(summary = "Фильтрация товаров по диапазону цен с курсорной пагинацией")
+    public ResponseEntity<CursorPageResponse<ProductDto>> getProductsByPriceRangeByCursor(
+            @Parameter(description = "Минимальная цена")
+            @RequestParam BigDecimal minPrice,
+            @Parameter(description = "Максимальная цена")
+            @RequestParam BigDecimal maxPrice,
+            @Parameter(description = "Курсор из nextCursor предыдущей страницы (пустой для первой страницы)")
+            @RequestParam String cursor,
+            @Parameter(description = "Размер страницы")
+            @RequestParam(defaultValue = "10") int size,
+            @Parameter(description = "Посчитать общее количество товаров в диапазоне")
+            @RequestParam(defaultValue = "false") boolean withTotal) {
+        CursorPageResponse<ProductDto> pageResponse =
+                productService.getProductsByPriceRangeByCursor(minPrice, maxPrice, cursor, size, withTotal);
+        pageResponse.setContent(ratingService.withLiveRatings(pageResponse.getContent()));
+        return ResponseEntity.ok().eTag(ProductETags.of(pageResponse)).body(pageResponse);
+    }
+    
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Потоковая выгрузка всего каталога в формате NDJSON")
+    public ResponseEntity<StreamingResponseBody> exportProducts(
+            @Parameter(description = "Выгрузить товары с ID больше указанного (продолжение прерванной выгрузки)")
+            @RequestParam(required = false) Long sinceId,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        boolean gzip = acceptEncoding != null && acceptEncoding.contains("gzip");
+        
+        // Тело пишется напрямую в поток ответа, каталог целиком в памяти не держится
+        StreamingResponseBody body = out -> productService.exportProducts(
+                sinceId, gzip ? new GZIPOutputStream(out, 8192) : out);
+        
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
     }
     
     @GetMapping("/categories")
@@ -98,4 +270,15 @@ public class ProductController {
         List<String> categories = productService.getAllUniqueCategories();
         return ResponseEntity.ok(categories);
     }
+    
+    @GetMapping("/categories/stats")
+    @Operation(summary = "Количество товаров и диапазон цен по категориям")
+    public ResponseEntity<List<CategoryStatsDto>> getCategoryStats() {
+        return ResponseEntity.ok(productService.getCategoryStats());
+    }
+    
+    private String eTag(ProductDto product) {
+        long version = product.getVersion() == null ? 0 : product.getVersion();
+        return ProductETags.of(product.getId(), version, ratingService.pendingCount(product.getId(), version));
+    }
 } 
\ No newline at end of file
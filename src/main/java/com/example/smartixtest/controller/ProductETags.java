@@ -0,0 +1,82 @@
+package com.example.smartixtest.controller;
+
+import com.example.smartixtest.dto.CursorPageResponse;
+import com.example.smartixtest.dto.FacetSearchResponse;
+import com.example.smartixtest.dto.PageResponse;
+import com.example.smartixtest.dto.ProductDto;
+import com.example.smartixtest.exception.BadRequestException;
+
+import java.util.List;
+import java.util.Objects;
+
+// ETag без сериализации ответа: товар - по id, версии и числу незаписанных оценок,
+// страница - по id, версиям и числу оценок товаров и метаданным страницы.
+// Теги слабые: одни и те же данные отдаются в JSON, CBOR и Smile, сжатыми и нет, а байты у этих
+// ответов разные. Слабый ETag Tomcat при сжатии не трогает
+final class ProductETags {
+
+    private ProductETags() {
+    }
+    
+    static String of(Long id, long version, long pendingRatings) {
+        return "W/\"" + id + "-" + version + (pendingRatings > 0 ? "-" + pendingRatings : "") + "\"";
+    }
+    
+    static String of(PageResponse<ProductDto> page) {
+        return page(page.getContent(), page.getPageNo(), page.getPageSize(), page.getTotalElements());
+    }
+    
+    static String of(CursorPageResponse<ProductDto> page) {
+        return page(page.getContent(), page.getPageSize(), page.getNextCursor(), page.getTotalElements());
+    }
+    
+    static String of(FacetSearchResponse response) {
+        return page(response.getContent(), response.getPageNo(), response.getPageSize(), response.getTotalElements(),
+                response.getCategories(), response.getPriceBuckets());
+    }
+    
+    // Версия из If-Match вида W/"<id>-<version>[-<незаписанные оценки>]"; null, если заголовка нет.
+    // Тег здесь только передаёт ожидаемую версию, поэтому принимается и без W/
+    static Long expectedVersion(Long id, String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.startsWith("W/")) {
+            tag = tag.substring(2);
+        }
+        String prefix = "\"" + id + "-";
+        if (!tag.startsWith(prefix) || !tag.endsWith("\"") || tag.length() <= prefix.length() + 1) {
+            throw new BadRequestException("If-Match не соответствует товару с ID " + id + ": " + tag);
+        }
+        String version = tag.substring(prefix.length(), tag.length() - 1);
+        int ratingsSeparator = version.indexOf('-');
+        try {
+            return Long.parseLong(ratingsSeparator < 0 ? version : version.substring(0, ratingsSeparator));
+        } catch (NumberFormatException e) {
+            throw new BadRequestException("Некорректный If-Match: " + tag);
+        }
+    }
+    
+    private static String page(List<ProductDto> content, Object... metadata) {
+        long hash = 1125899906842597L;
+        for (ProductDto product : content) {
+            hash = mix(hash, product.getId() == null ? 0 : product.getId());
+            hash = mix(hash, product.getVersion() == null ? 0 : product.getVersion());
+            hash = mix(hash, product.getRating() == null || product.getRating().getCount() == null
+                    ? 0 : product.getRating().getCount());
+        }
+        for (Object value : metadata) {
+            hash = mix(hash, Objects.hashCode(value));
+        }
+        return "W/\"p" + Long.toHexString(hash) + "\"";
+    }
+    
+    // Перемешивание из SplitMix64, чтобы соседние id и версии давали далёкие хэши
+    private static long mix(long hash, long value) {
+        long z = (hash ^ value) + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
\ No newline at end of file
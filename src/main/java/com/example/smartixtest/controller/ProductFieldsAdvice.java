@@ -0,0 +1,46 @@
+package com.example.smartixtest.controller;
+
+import com.example.smartixtest.dto.ProductFields;
+import com.example.smartixtest.exception.BadRequestException;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.AbstractMappingJacksonResponseBodyAdvice;
+
+import java.util.List;
+
+// ?fields=id,title,price для ответов ProductController в любом формате Jackson (JSON, CBOR, Smile).
+// Формат выбирается по Accept, поэтому кэшам нужен Vary: Accept
+@RestControllerAdvice(assignableTypes = ProductController.class)
+class ProductFieldsAdvice extends AbstractMappingJacksonResponseBodyAdvice {
+
+    static final String FIELDS_PARAM = "fields";
+    
+    @Override
+    protected void beforeBodyWriteInternal(MappingJacksonValue bodyContainer, MediaType contentType,
+                                           MethodParameter returnType, ServerHttpRequest request,
+                                           ServerHttpResponse response) {
+        List<String> vary = response.getHeaders().getVary();
+        if (!vary.contains(HttpHeaders.ACCEPT)) {
+            response.getHeaders().add(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        }
+        
+        if (!(request instanceof ServletServerHttpRequest servletRequest)) {
+            return;
+        }
+        String fields = servletRequest.getServletRequest().getParameter(FIELDS_PARAM);
+        if (fields == null) {
+            return;
+        }
+        try {
+            bodyContainer.setFilters(ProductFields.only(ProductFields.parse(fields)));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException(e.getMessage());
+        }
+    }
+}
\ No newline at end of file
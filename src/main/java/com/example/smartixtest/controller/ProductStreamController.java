@@ -0,0 +1,74 @@
+package com.example.smartixtest.controller;
+
+import com.example.smartixtest.dto.CursorPageResponse;
+import com.example.smartixtest.dto.ProductDto;
+import com.example.smartixtest.service.ProductStreamService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+
+// Неблокирующий вариант чтения рядом с обычными эндпоинтами: MVC подписывается на Flux/Mono
+// в асинхронном режиме, поток веб-сервера не занят всё время ответа, а элементы
+// запрашиваются по одному после записи предыдущего (back-pressure)
+@RestController
+@RequestMapping("/api/products/stream")
+@RequiredArgsConstructor
+@Tag(name = "Товары: потоковое чтение", description = "NDJSON и server-sent events с back-pressure")
+public class ProductStreamController {
+
+    private static final String LAST_EVENT_ID = "Last-Event-ID";
+    
+    private final ProductStreamService productStreamService;
+    
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Поток товаров каталога или ценового диапазона в формате NDJSON")
+    public Flux<ProductDto> streamProducts(
+            @Parameter(description = "Минимальная цена (вместе с maxPrice)")
+            @RequestParam(required = false) BigDecimal minPrice,
+            @Parameter(description = "Максимальная цена (вместе с minPrice)")
+            @RequestParam(required = false) BigDecimal maxPrice,
+            @Parameter(description = "Курсор, с которого продолжить (nextCursor курсорной пагинации)")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Размер страницы чтения из БД")
+            @RequestParam(defaultValue = "100") int pageSize) {
+        return productStreamService.streamPages(minPrice, maxPrice, cursor, pageSize)
+                .concatMapIterable(CursorPageResponse::getContent, 1);
+    }
+    
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Страницы товаров как server-sent events, id события - курсор следующей страницы")
+    public Flux<ServerSentEvent<CursorPageResponse<ProductDto>>> streamPageEvents(
+            @Parameter(description = "Минимальная цена (вместе с maxPrice)")
+            @RequestParam(required = false) BigDecimal minPrice,
+            @Parameter(description = "Максимальная цена (вместе с minPrice)")
+            @RequestParam(required = false) BigDecimal maxPrice,
+            @Parameter(description = "Курсор, с которого начать")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Размер страницы")
+            @RequestParam(defaultValue = "100") int pageSize,
+            @RequestHeader(value = LAST_EVENT_ID, required = false) String lastEventId) {
+        // Переподключившийся клиент продолжает с последней полученной страницы
+        String from = lastEventId != null && !lastEventId.isBlank() ? lastEventId : cursor;
+        return productStreamService.streamPages(minPrice, maxPrice, from, pageSize)
+                .map(page -> ServerSentEvent.builder(page)
+                        .event("page")
+                        .id(page.getNextCursor())
+                        .build());
+    }
+    
+    @GetMapping("/{id}")
+    @Operation(summary = "Получение товара по ID без удержания потока запроса")
+    public Mono<ProductDto> getProduct(
+            @Parameter(description = "ID товара")
+            @PathVariable Long id) {
+        return productStreamService.getProduct(id);
+    }
+}
\ No newline at end of file
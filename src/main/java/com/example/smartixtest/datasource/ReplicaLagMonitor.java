@@ -0,0 +1,88 @@
+package com.example.smartixtest.datasource;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Периодически измеряет отставание реплик и исключает из чтения отстающие больше maxLag и недоступные.
+// Состояние видно в /actuator/health (replicaLag) и в метрике datasource.replica.lag.
+// Статус всегда UP: без реплик чтения продолжаются с primary
+@Slf4j
+public class ReplicaLagMonitor implements HealthIndicator {
+
+    private final List<ReplicaRoutingDataSource.Replica> replicas;
+    private final Map<String, JdbcTemplate> lagQueries = new LinkedHashMap<>();
+    private final String lagQuery;
+    private final double maxLagSeconds;
+    
+    public ReplicaLagMonitor(ReplicaRoutingDataSource routingDataSource, String lagQuery, Duration maxLag,
+                             MeterRegistry meterRegistry) {
+        this.replicas = routingDataSource.getReplicas();
+        this.lagQuery = lagQuery;
+        this.maxLagSeconds = maxLag.toMillis() / 1000.0;
+        for (ReplicaRoutingDataSource.Replica replica : replicas) {
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(replica.getDataSource());
+            // Зависшая реплика не должна задерживать проверку остальных
+            jdbcTemplate.setQueryTimeout(5);
+            lagQueries.put(replica.getName(), jdbcTemplate);
+            Gauge.builder("datasource.replica.lag", replica, ReplicaRoutingDataSource.Replica::getLagSeconds)
+                    .description("Отставание реплики от primary")
+                    .baseUnit("seconds")
+                    .tag("replica", replica.getName())
+                    .register(meterRegistry);
+        }
+    }
+    
+    @Scheduled(fixedDelayString = "${datasource.replicas.lag-check-interval:PT5S}")
+    public void check() {
+        for (ReplicaRoutingDataSource.Replica replica : replicas) {
+            double lag;
+            try {
+                Double measured = lagQueries.get(replica.getName()).queryForObject(lagQuery, Double.class);
+                lag = measured == null ? 0 : measured;
+            } catch (DataAccessException e) {
+                if (replica.isAvailable()) {
+                    log.warn("Реплика {} недоступна, чтения переключены: {}", replica.getName(), e.getMessage());
+                }
+                replica.update(Double.NaN, false);
+                continue;
+            }
+            boolean available = lag <= maxLagSeconds;
+            if (available != replica.isAvailable()) {
+                if (available) {
+                    log.info("Реплика {} снова принимает чтения, отставание {} с", replica.getName(), lag);
+                } else {
+                    log.warn("Реплика {} отстаёт на {} с (допустимо {} с), чтения переключены",
+                            replica.getName(), lag, maxLagSeconds);
+                }
+            }
+            replica.update(lag, available);
+        }
+    }
+    
+    @Override
+    public Health health() {
+        Health.Builder health = Health.up();
+        boolean anyAvailable = false;
+        for (ReplicaRoutingDataSource.Replica replica : replicas) {
+            Map<String, Object> details = new LinkedHashMap<>();
+            details.put("available", replica.isAvailable());
+            details.put("lagSeconds", Double.isNaN(replica.getLagSeconds()) ? null : replica.getLagSeconds());
+            health.withDetail(replica.getName(), details);
+            anyAvailable |= replica.isAvailable();
+        }
+        health.withDetail("maxLagSeconds", maxLagSeconds);
+        health.withDetail("readsFromPrimary", !anyAvailable);
+        return health.build();
+    }
+}
\ No newline at end of file
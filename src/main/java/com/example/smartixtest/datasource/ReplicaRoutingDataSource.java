@@ -0,0 +1,121 @@
+package com.example.smartixtest.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+// Read-only транзакции читают с реплик по кругу, всё остальное идёт на primary.
+// Реплика получает чтения, только пока ReplicaLagMonitor считает её доступной и не отстающей,
+// без таких реплик чтения тоже идут на primary. Чтения, которым нельзя отставать (заполнение кэша,
+// версия для ETag), выполняются через onPrimary.
+// Используется только за LazyConnectionDataSourceProxy: реальное соединение берётся при первом
+// запросе, когда признак read-only транзакции уже выставлен
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements Closeable {
+
+    public static final String PRIMARY = "primary";
+    
+    private static final ThreadLocal<Boolean> PRIMARY_READS = ThreadLocal.withInitial(() -> false);
+    
+    private final List<Replica> replicas = new ArrayList<>();
+    private final AtomicInteger next = new AtomicInteger();
+    
+    public ReplicaRoutingDataSource(DataSource primary, Map<String, DataSource> replicas) {
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        replicas.forEach((name, dataSource) -> {
+            targets.put(name, dataSource);
+            this.replicas.add(new Replica(name, dataSource));
+        });
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+    
+    public List<Replica> getReplicas() {
+        return replicas;
+    }
+    
+    // Выполняет чтение на primary и внутри read-only транзакции. Соединение берётся при первом
+    // запросе, поэтому действует, только если транзакция ещё не обращалась к базе
+    public static <T> T onPrimary(Supplier<T> reads) {
+        boolean previous = PRIMARY_READS.get();
+        PRIMARY_READS.set(true);
+        try {
+            return reads.get();
+        } finally {
+            PRIMARY_READS.set(previous);
+        }
+    }
+    
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (replicas.isEmpty() || PRIMARY_READS.get()
+                || !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return PRIMARY;
+        }
+        int start = Math.floorMod(next.getAndIncrement(), replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get((start + i) % replicas.size());
+            if (replica.isAvailable()) {
+                return replica.getName();
+            }
+        }
+        return PRIMARY;
+    }
+    
+    // Пулы реплик принадлежат роутингу, primary закрывается как отдельный бин
+    @Override
+    public void close() throws IOException {
+        for (Replica replica : replicas) {
+            if (replica.getDataSource() instanceof Closeable closeable) {
+                closeable.close();
+            }
+        }
+    }
+    
+    public static final class Replica {
+        
+        private final String name;
+        private final DataSource dataSource;
+        // До первой проверки отставания реплика не получает чтения
+        private volatile boolean available;
+        private volatile double lagSeconds = Double.NaN;
+        
+        Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+        
+        public String getName() {
+            return name;
+        }
+        
+        public DataSource getDataSource() {
+            return dataSource;
+        }
+        
+        public boolean isAvailable() {
+            return available;
+        }
+        
+        // NaN, если отставание не удалось измерить
+        public double getLagSeconds() {
+            return lagSeconds;
+        }
+        
+        void update(double lagSeconds, boolean available) {
+            this.lagSeconds = lagSeconds;
+            this.available = available;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,28 @@
+package com.example.smartixtest.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BatchItemResultDto {
+
+    private BatchOperation operation;
+    
+    // Позиция элемента в своём массиве запроса (create, update или delete)
+    private int index;
+    
+    private Long id;
+    
+    // HTTP-статус, который вернул бы одиночный запрос: 201, 200, 204 или 400, 404, 409, 500
+    private int status;
+    
+    // Версия товара после записи
+    private Long version;
+    
+    private String error;
+}
\ No newline at end of file
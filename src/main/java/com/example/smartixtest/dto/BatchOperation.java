@@ -0,0 +1,7 @@
+package com.example.smartixtest.dto;
+
+public enum BatchOperation {
+    CREATE,
+    UPDATE,
+    DELETE
+}
\ No newline at end of file
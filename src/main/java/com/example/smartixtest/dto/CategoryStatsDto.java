@@ -0,0 +1,23 @@
+package com.example.smartixtest.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CategoryStatsDto {
+
+    private String name;
+    
+    private long productCount;
+    
+    // null, если ни у одного товара категории не указана цена
+    private BigDecimal minPrice;
+    
+    private BigDecimal maxPrice;
+}
\ No newline at end of file
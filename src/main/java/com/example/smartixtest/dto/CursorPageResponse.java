@@ -0,0 +1,22 @@
+package com.example.smartixtest.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CursorPageResponse<T> {
+
+    private List<T> content;
+    private int pageSize;
+    private String nextCursor;
+    private boolean hasNext;
+    
+    // Заполняется только по запросу клиента (withTotal=true), т.к. требует count-запроса
+    private Long totalElements;
+}
\ No newline at end of file
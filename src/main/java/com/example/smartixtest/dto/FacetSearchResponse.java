@@ -0,0 +1,28 @@
+package com.example.smartixtest.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class FacetSearchResponse {
+
+    private List<ProductDto> content;
+    private int pageNo;
+    private int pageSize;
+    private long totalElements;
+    private int totalPages;
+    private boolean last;
+    
+    // Количество товаров по категориям без учёта фильтра по категориям
+    private Map<String, Long> categories;
+    
+    // Количество товаров по ценовым интервалам без учёта фильтра по цене
+    private List<PriceBucketDto> priceBuckets;
+}
\ No newline at end of file
@@ -0,0 +1,43 @@
+package com.example.smartixtest.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.Instant;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ImportJobDto {
+
+    private String jobId;
+    
+    private ImportJobPhase phase;
+    
+    private Instant startedAt;
+    
+    private Instant finishedAt;
+    
+    private int sourcesTotal;
+    
+    private int sourcesCompleted;
+    
+    private int failedSources;
+    
+    // Сколько товаров прочитано из источников и сколько из них сохранено
+    private long processed;
+    
+    private long imported;
+    
+    private double rowsPerSecond;
+    
+    // Оценка оставшегося времени по прочитанной доле источников (с учётом Content-Length), пока она известна
+    private Long etaSeconds;
+    
+    private String error;
+    
+    // Итоговая сводка, заполняется после завершения
+    private ImportSummaryDto summary;
+}
\ No newline at end of file
@@ -0,0 +1,9 @@
+package com.example.smartixtest.dto;
+
+public enum ImportJobPhase {
+    QUEUED,
+    RUNNING,
+    COMPLETED,
+    FAILED,
+    CANCELLED
+}
\ No newline at end of file
@@ -0,0 +1,31 @@
+package com.example.smartixtest.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ImportSourceResultDto {
+
+    private String url;
+    
+    private long received;
+    
+    private long imported;
+    
+    // Товары, совпавшие с БД по хэшу содержимого: записи в БД не было
+    private long unchanged;
+    
+    private long duplicates;
+    
+    private int chunks;
+    
+    private int attempts;
+    
+    // Заполняется, если источник не удалось загрузить полностью
+    private String error;
+}
\ No newline at end of file
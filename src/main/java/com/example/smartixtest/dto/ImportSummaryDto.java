@@ -0,0 +1,40 @@
+package com.example.smartixtest.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ImportSummaryDto {
+
+    // Сколько товаров прочитано из ответа внешнего API
+    private long received;
+    
+    // Сколько товаров сохранено в БД (новые и изменившиеся)
+    private long imported;
+    
+    // Сколько товаров пропущено, потому что их содержимое не изменилось
+    private long unchanged;
+    
+    // Сколько товаров мягко удалено, потому что они пропали из фида
+    private long softDeleted;
+    
+    // Сколько дубликатов отброшено внутри пачек
+    private long duplicates;
+    
+    private int chunks;
+    
+    private long durationMs;
+    
+    private double rowsPerSecond;
+    
+    private int failedSources;
+    
+    // Результат по каждому источнику фида
+    private List<ImportSourceResultDto> sources;
+}
\ No newline at end of file
@@ -0,0 +1,21 @@
+package com.example.smartixtest.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PriceBucketDto {
+
+    // Интервал [from, to), у последнего интервала to == null
+    private BigDecimal from;
+    
+    private BigDecimal to;
+    
+    private long count;
+}
\ No newline at end of file
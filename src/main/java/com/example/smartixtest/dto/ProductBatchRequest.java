@@ -0,0 +1,22 @@
+package com.example.smartixtest.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductBatchRequest {
+
+    private List<ProductDto> create;
+    
+    // Товары с обязательным id; version - ожидаемая версия, как If-Match в одиночном PUT
+    private List<ProductDto> update;
+    
+    private List<Long> delete;
+}
\ No newline at end of file
@@ -0,0 +1,22 @@
+package com.example.smartixtest.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductBatchResponse {
+
+    private int succeeded;
+    
+    private int failed;
+    
+    // Результаты в порядке: create, update, delete, внутри - по позиции в запросе
+    private List<BatchItemResultDto> results;
+}
\ No newline at end of file
@@ -31,4 +31,14 @@ public class ProductDto {
     private String image;
     
     private RatingDto rating;
+    
+    // Версия товара; в запросе на обновление - ожидаемая версия (If-Match)
+    private Long version;
+    
+    // Конструктор для JPQL-проекций: рейтинг приходит плоскими колонками rating_rate и rating_count таблицы products
+    public ProductDto(Long id, String title, BigDecimal price, String description,
+                      String category, String image, Double rate, Integer count, Long version) {
+        this(id, title, price, description, category, image,
+                rate == null && count == null ? null : new RatingDto(rate, count), version);
+    }
 } 
\ No newline at end of file
@@ -0,0 +1,61 @@
+package com.example.smartixtest.dto;
+
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.fasterxml.jackson.databind.ser.FilterProvider;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+// Разреженный набор полей ProductDto (?fields=id,title,price): сериализатор пропускает
+// незапрошенные поля целиком, они не попадают в ответ ни в JSON, ни в бинарных форматах
+public final class ProductFields {
+
+    public static final String FILTER_ID = "productFields";
+    
+    public static final List<String> ALL = List.of(
+            "id", "title", "price", "description", "category", "image", "rating", "version");
+    
+    private static final FilterProvider SERIALIZE_ALL = new SimpleFilterProvider()
+            .addFilter(FILTER_ID, SimpleBeanPropertyFilter.serializeAll());
+    
+    private ProductFields() {
+    }
+    
+    // Фильтр навешивается миксином только в ObjectMapper приложения, сам ProductDto остаётся без аннотаций
+    @JsonFilter(FILTER_ID)
+    public interface FilterMixin {
+    }
+    
+    // Фильтры по умолчанию для ObjectMapper: все поля
+    public static FilterProvider all() {
+        return SERIALIZE_ALL;
+    }
+    
+    public static FilterProvider only(Set<String> fields) {
+        return new SimpleFilterProvider()
+                .addFilter(FILTER_ID, SimpleBeanPropertyFilter.filterOutAllExcept(fields));
+    }
+    
+    // Список полей через запятую; неизвестное поле - IllegalArgumentException
+    public static Set<String> parse(String fields) {
+        Set<String> result = new LinkedHashSet<>();
+        for (String field : fields.split(",")) {
+            String name = field.trim();
+            if (name.isEmpty()) {
+                continue;
+            }
+            if (!ALL.contains(name)) {
+                throw new IllegalArgumentException("Неизвестное поле товара '" + name + "', доступны: "
+                        + String.join(",", ALL));
+            }
+            result.add(name);
+        }
+        if (result.isEmpty()) {
+            throw new IllegalArgumentException("Не указано ни одного поля, доступны: " + String.join(",", ALL));
+        }
+        return result;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,21 @@
+package com.example.smartixtest.dto;
+
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RatingEventDto {
+
+    @NotNull(message = "Оценка должна быть указана")
+    @DecimalMin(value = "1.0", message = "Оценка не может быть меньше 1")
+    @DecimalMax(value = "5.0", message = "Оценка не может быть больше 5")
+    private Double rate;
+}
\ No newline at end of file
@@ -0,0 +1,26 @@
+package com.example.smartixtest.event;
+
+import com.example.smartixtest.model.Product;
+import java.math.BigDecimal;
+
+// Поля товара, от которых зависят производные индексы (категорий, поиска и фасетов)
+public record ProductSnapshot(Long id, String title, String description, String category, BigDecimal price,
+                              Double rate, Integer count) {
+
+    // null для отсутствующего или мягко удалённого товара
+    public static ProductSnapshot of(Product product) {
+        if (product == null || product.isDeleted()) {
+            return null;
+        }
+        String category = product.getCategory() != null ? product.getCategory().getName() : null;
+        Double rate = product.getRating() != null ? product.getRating().getRate() : null;
+        Integer count = product.getRating() != null ? product.getRating().getCount() : null;
+        return new ProductSnapshot(product.getId(), product.getTitle(), product.getDescription(),
+                category, product.getPrice(), rate, count);
+    }
+    
+    // Удаление, когда известны только id и поля индекса категорий
+    public static ProductSnapshot removed(Long id, String category, BigDecimal price) {
+        return new ProductSnapshot(id, null, null, category, price, null, null);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,15 @@
+package com.example.smartixtest.event;
+
+import java.util.List;
+
+// Публикуется внутри транзакции записи товаров, слушатели получают его после коммита.
+// before == null - товар создан, after == null - товар удалён
+public record ProductsChangedEvent(List<Change> changes) {
+
+    public record Change(ProductSnapshot before, ProductSnapshot after) {
+    }
+    
+    public static ProductsChangedEvent of(ProductSnapshot before, ProductSnapshot after) {
+        return new ProductsChangedEvent(List.of(new Change(before, after)));
+    }
+}
\ No newline at end of file
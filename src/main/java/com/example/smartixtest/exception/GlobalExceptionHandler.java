@@ -3,8 +3,12 @@ package com.example.smartixtest.exception;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.CannotCreateTransactionException;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -33,6 +37,78 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(errorDetails, HttpStatus.NOT_FOUND);
     }
     
+    @ExceptionHandler(BadRequestException.class)
+    public ResponseEntity<ErrorDetails> handleBadRequestException(
+            BadRequestException ex, WebRequest request) {
+        log.warn("Некорректный запрос: {}", ex.getMessage());
+        
+        ErrorDetails errorDetails = new ErrorDetails(
+                new Date(),
+                ex.getMessage(),
+                request.getDescription(false));
+        
+        return new ResponseEntity<>(errorDetails, HttpStatus.BAD_REQUEST);
+    }
+    
+    @ExceptionHandler(ConflictException.class)
+    public ResponseEntity<ErrorDetails> handleConflictException(
+            ConflictException ex, WebRequest request) {
+        log.warn("Конфликт: {}", ex.getMessage());
+        
+        ErrorDetails errorDetails = new ErrorDetails(
+                new Date(),
+                ex.getMessage(),
+                request.getDescription(false));
+        
+        return new ResponseEntity<>(errorDetails, HttpStatus.CONFLICT);
+    }
+    
+    // Товар изменили параллельно между чтением и записью
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<ErrorDetails> handleOptimisticLockingFailureException(
+            OptimisticLockingFailureException ex, WebRequest request) {
+        log.warn("Конфликт параллельного изменения: {}", ex.getMessage());
+        
+        ErrorDetails errorDetails = new ErrorDetails(
+                new Date(),
+                "Ресурс был изменён другим запросом, повторите операцию",
+                request.getDescription(false));
+        
+        return new ResponseEntity<>(errorDetails, HttpStatus.CONFLICT);
+    }
+    
+    // Сервис временно не принимает запросы (переполнена очередь или идёт остановка)
+    @ExceptionHandler(ServiceUnavailableException.class)
+    public ResponseEntity<ErrorDetails> handleServiceUnavailableException(
+            ServiceUnavailableException ex, WebRequest request) {
+        log.warn("Сервис недоступен: {}", ex.getMessage());
+        
+        ErrorDetails errorDetails = new ErrorDetails(
+                new Date(),
+                ex.getMessage(),
+                request.getDescription(false));
+        
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(errorDetails);
+    }
+    
+    // Нет соединения с БД: пул исчерпан дольше spring.datasource.hikari.connection-timeout или БД недоступна
+    @ExceptionHandler({CannotCreateTransactionException.class, DataAccessResourceFailureException.class})
+    public ResponseEntity<ErrorDetails> handleDatabaseUnavailableException(
+            Exception ex, WebRequest request) {
+        log.warn("Нет свободного соединения с БД: {}", ex.getMessage());
+        
+        ErrorDetails errorDetails = new ErrorDetails(
+                new Date(),
+                "База данных недоступна или перегружена, повторите запрос позже",
+                request.getDescription(false));
+        
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(errorDetails);
+    }
+    
     @ExceptionHandler(RestClientException.class)
     public ResponseEntity<ErrorDetails> handleRestClientException(
             RestClientException ex, WebRequest request) {
@@ -0,0 +1,226 @@
+package com.example.smartixtest.facet;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Колоночный индекс товаров в памяти для фасетной фильтрации: каждое измерение хранится
+// отдельным примитивным массивом, фильтр и все счётчики считаются за один проход.
+// Фасеты дизъюнктивные: счётчики категорий не учитывают фильтр по категориям, а счётчики
+// ценовых интервалов - фильтр по цене, чтобы интерфейс показывал, сколько товаров даст
+// расширение выбора. Класс не потокобезопасен, синхронизация на стороне вызывающего
+public class FacetIndex {
+
+    private static final int NO_CATEGORY = -1;
+    private static final int NO_COUNT = -1;
+    
+    // Нижние границы ценовых интервалов по возрастанию, последний интервал открыт сверху
+    private final double[] bucketBounds;
+    
+    private final Map<String, Integer> categoryOrds = new HashMap<>();
+    private final List<String> categoryNames = new ArrayList<>();
+    private final Map<Long, Integer> docByProductId = new HashMap<>();
+    private final BitSet live = new BitSet();
+    
+    // Освободившиеся номера переиспользуются: порядок документов индексу не важен
+    private int[] free = new int[64];
+    private int freeCount;
+    
+    private long[] productIds = new long[1024];
+    private int[] categories = new int[1024];
+    private double[] prices = new double[1024];
+    private double[] rates = new double[1024];
+    private int[] counts = new int[1024];
+    private int docCount;
+    
+    public FacetIndex(List<BigDecimal> bucketBounds) {
+        this.bucketBounds = bucketBounds.stream()
+                .mapToDouble(BigDecimal::doubleValue)
+                .sorted()
+                .toArray();
+    }
+    
+    public double[] getBucketBounds() {
+        return bucketBounds.clone();
+    }
+    
+    public void add(long productId, String category, BigDecimal price, Double rate, Integer count) {
+        Integer existing = docByProductId.get(productId);
+        int doc;
+        if (existing != null) {
+            doc = existing;
+        } else if (freeCount > 0) {
+            doc = free[--freeCount];
+        } else {
+            doc = docCount++;
+            if (doc == productIds.length) {
+                int capacity = productIds.length * 2;
+                productIds = Arrays.copyOf(productIds, capacity);
+                categories = Arrays.copyOf(categories, capacity);
+                prices = Arrays.copyOf(prices, capacity);
+                rates = Arrays.copyOf(rates, capacity);
+                counts = Arrays.copyOf(counts, capacity);
+            }
+        }
+        
+        productIds[doc] = productId;
+        categories[doc] = category == null ? NO_CATEGORY : categoryOrds.computeIfAbsent(category, name -> {
+            categoryNames.add(name);
+            return categoryNames.size() - 1;
+        });
+        // NaN не проходит ни одно сравнение, поэтому товар без цены или рейтинга отсекается соответствующим фильтром
+        prices[doc] = price == null ? Double.NaN : price.doubleValue();
+        rates[doc] = rate == null ? Double.NaN : rate;
+        counts[doc] = count == null ? NO_COUNT : count;
+        live.set(doc);
+        docByProductId.put(productId, doc);
+    }
+    
+    public boolean remove(long productId) {
+        Integer doc = docByProductId.remove(productId);
+        if (doc == null) {
+            return false;
+        }
+        live.clear(doc);
+        if (freeCount == free.length) {
+            free = Arrays.copyOf(free, free.length * 2);
+        }
+        free[freeCount++] = doc;
+        return true;
+    }
+    
+    public int size() {
+        return docByProductId.size();
+    }
+    
+    public FacetResult search(FacetQuery query, int offset, int limit) {
+        boolean[] allowedCategories = null;
+        if (query.categories() != null && !query.categories().isEmpty()) {
+            allowedCategories = new boolean[categoryNames.size()];
+            for (String name : query.categories()) {
+                Integer ord = categoryOrds.get(name);
+                if (ord != null) {
+                    allowedCategories[ord] = true;
+                }
+            }
+        }
+        double minPrice = query.minPrice() == null ? Double.NEGATIVE_INFINITY : query.minPrice().doubleValue();
+        double maxPrice = query.maxPrice() == null ? Double.POSITIVE_INFINITY : query.maxPrice().doubleValue();
+        boolean priceFiltered = query.minPrice() != null || query.maxPrice() != null;
+        double minRate = query.minRate() == null ? Double.NaN : query.minRate();
+        int minCount = query.minCount() == null ? NO_COUNT : query.minCount();
+        
+        long[] categoryCounts = new long[categoryNames.size()];
+        long[] bucketCounts = new long[bucketBounds.length];
+        TopIds page = new TopIds(offset + limit);
+        int total = 0;
+        
+        for (int doc = live.nextSetBit(0); doc >= 0; doc = live.nextSetBit(doc + 1)) {
+            if (!Double.isNaN(minRate) && !(rates[doc] >= minRate)) {
+                continue;
+            }
+            if (minCount != NO_COUNT && counts[doc] < minCount) {
+                continue;
+            }
+            
+            double price = prices[doc];
+            int category = categories[doc];
+            boolean priceMatches = !priceFiltered || (price >= minPrice && price <= maxPrice);
+            boolean categoryMatches = allowedCategories == null
+                    || (category != NO_CATEGORY && allowedCategories[category]);
+            
+            if (priceMatches && category != NO_CATEGORY) {
+                categoryCounts[category]++;
+            }
+            if (categoryMatches) {
+                int bucket = bucket(price);
+                if (bucket >= 0) {
+                    bucketCounts[bucket]++;
+                }
+            }
+            if (priceMatches && categoryMatches) {
+                total++;
+                page.offer(productIds[doc]);
+            }
+        }
+        
+        Map<String, Long> byCategory = new LinkedHashMap<>();
+        for (int ord = 0; ord < categoryCounts.length; ord++) {
+            if (categoryCounts[ord] > 0) {
+                byCategory.put(categoryNames.get(ord), categoryCounts[ord]);
+            }
+        }
+        return new FacetResult(page.sorted(offset), total, byCategory, bucketCounts);
+    }
+    
+    // Номер ценового интервала или -1 для товара без цены и цены ниже первой границы
+    private int bucket(double price) {
+        if (Double.isNaN(price) || bucketBounds.length == 0 || price < bucketBounds[0]) {
+            return -1;
+        }
+        int index = Arrays.binarySearch(bucketBounds, price);
+        return index >= 0 ? index : -index - 2;
+    }
+    
+    // Наименьшие id совпавших товаров: max-куча ограниченного размера вместо сортировки всех совпадений
+    private static class TopIds {
+        
+        private final long[] heap;
+        private int size;
+        
+        TopIds(int capacity) {
+            heap = new long[Math.max(capacity, 0)];
+        }
+        
+        void offer(long id) {
+            if (size < heap.length) {
+                heap[size] = id;
+                int index = size++;
+                while (index > 0 && heap[(index - 1) / 2] < heap[index]) {
+                    swap(index, (index - 1) / 2);
+                    index = (index - 1) / 2;
+                }
+            } else if (size > 0 && id < heap[0]) {
+                heap[0] = id;
+                int index = 0;
+                while (true) {
+                    int largest = index;
+                    int left = 2 * index + 1;
+                    int right = left + 1;
+                    if (left < size && heap[left] > heap[largest]) {
+                        largest = left;
+                    }
+                    if (right < size && heap[right] > heap[largest]) {
+                        largest = right;
+                    }
+                    if (largest == index) {
+                        break;
+                    }
+                    swap(index, largest);
+                    index = largest;
+                }
+            }
+        }
+        
+        List<Long> sorted(int offset) {
+            long[] ids = Arrays.copyOf(heap, size);
+            Arrays.sort(ids);
+            List<Long> page = new ArrayList<>(Math.max(ids.length - offset, 0));
+            for (int i = offset; i < ids.length; i++) {
+                page.add(ids[i]);
+            }
+            return page;
+        }
+        
+        private void swap(int a, int b) {
+            long tmp = heap[a];
+            heap[a] = heap[b];
+            heap[b] = tmp;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,10 @@
+package com.example.smartixtest.facet;
+
+import java.math.BigDecimal;
+import java.util.Set;
+
+// Фильтры фасетного поиска, каждый необязателен. Категории объединяются через ИЛИ,
+// разные измерения - через И
+public record FacetQuery(Set<String> categories, BigDecimal minPrice, BigDecimal maxPrice,
+                         Double minRate, Integer minCount) {
+}
\ No newline at end of file
@@ -0,0 +1,10 @@
+package com.example.smartixtest.facet;
+
+import java.util.List;
+import java.util.Map;
+
+// Страница id товаров по возрастанию id, общее число совпадений и счётчики фасетов.
+// priceBucketCounts[i] - товары с ценой в i-м интервале из границ индекса
+public record FacetResult(List<Long> productIds, int total, Map<String, Long> categoryCounts,
+                          long[] priceBucketCounts) {
+}
\ No newline at end of file
@@ -7,6 +7,11 @@ import com.example.smartixtest.model.Product;
 import com.example.smartixtest.model.Rating;
 import org.springframework.stereotype.Component;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
 @Component
 public class ProductMapper {
 
@@ -67,6 +72,7 @@ public class ProductMapper {
                 .category(categoryName)
                 .image(entity.getImage())
                 .rating(ratingDto)
+                .version(entity.getVersion())
                 .build();
     }
     
@@ -108,4 +114,27 @@ public class ProductMapper {
         
         // Категорию обновляем отдельно через сервис, т.к. там нужен поиск или создание
     }
+    
+    // Хэш содержимого товара из фида: первые 8 байт SHA-256 по всем полям, кроме id.
+    // Цена нормализуется, чтобы 10.0 и 10.00 не считались изменением
+    public long contentHash(ProductDto dto) {
+        StringBuilder content = new StringBuilder()
+                .append(dto.getTitle()).append('\u0000')
+                .append(dto.getPrice() == null ? null : dto.getPrice().stripTrailingZeros().toPlainString()).append('\u0000')
+                .append(dto.getDescription()).append('\u0000')
+                .append(dto.getCategory()).append('\u0000')
+                .append(dto.getImage()).append('\u0000');
+        if (dto.getRating() != null) {
+            content.append(dto.getRating().getRate()).append('\u0000')
+                    .append(dto.getRating().getCount());
+        }
+        
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(content.toString().getBytes(StandardCharsets.UTF_8));
+            return ByteBuffer.wrap(digest).getLong();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 недоступен", e);
+        }
+    }
 } 
\ No newline at end of file
@@ -0,0 +1,83 @@
+package com.example.smartixtest.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+// Считает SQL, который Hibernate отправляет в БД: общий счётчик по типу запроса
+// и счётчик текущего HTTP-запроса (см. SqlMetricsFilter).
+// Ранее настроенный statement_inspector сохраняется и вызывается после подсчёта
+public class SqlStatementCounter implements StatementInspector {
+
+    private static final ThreadLocal<int[]> CURRENT_REQUEST = new ThreadLocal<>();
+    
+    private final Counter selects;
+    private final Counter inserts;
+    private final Counter updates;
+    private final Counter deletes;
+    private final Counter other;
+    private final StatementInspector delegate;
+    
+    public SqlStatementCounter(MeterRegistry meterRegistry, StatementInspector delegate) {
+        this.selects = counter(meterRegistry, "select");
+        this.inserts = counter(meterRegistry, "insert");
+        this.updates = counter(meterRegistry, "update");
+        this.deletes = counter(meterRegistry, "delete");
+        this.other = counter(meterRegistry, "other");
+        this.delegate = delegate;
+    }
+    
+    @Override
+    public String inspect(String sql) {
+        counterFor(sql).increment();
+        int[] current = CURRENT_REQUEST.get();
+        if (current != null) {
+            current[0]++;
+        }
+        return delegate != null ? delegate.inspect(sql) : sql;
+    }
+    
+    // Начинает подсчёт запросов в текущем потоке
+    public static void begin() {
+        CURRENT_REQUEST.set(new int[1]);
+    }
+    
+    // Заканчивает подсчёт и возвращает число запросов с момента begin()
+    public static int end() {
+        int[] current = CURRENT_REQUEST.get();
+        CURRENT_REQUEST.remove();
+        return current != null ? current[0] : 0;
+    }
+    
+    // Тип определяется по первому слову без разбора SQL и без аллокаций
+    private Counter counterFor(String sql) {
+        int start = 0;
+        while (start < sql.length() && Character.isWhitespace(sql.charAt(start))) {
+            start++;
+        }
+        if (startsWith(sql, start, "select") || startsWith(sql, start, "with")) {
+            return selects;
+        }
+        if (startsWith(sql, start, "insert")) {
+            return inserts;
+        }
+        if (startsWith(sql, start, "update")) {
+            return updates;
+        }
+        if (startsWith(sql, start, "delete")) {
+            return deletes;
+        }
+        return other;
+    }
+    
+    private static boolean startsWith(String sql, int offset, String keyword) {
+        return sql.regionMatches(true, offset, keyword, 0, keyword.length());
+    }
+    
+    private static Counter counter(MeterRegistry meterRegistry, String type) {
+        return Counter.builder("db.statements")
+                .description("SQL-запросы, отправленные Hibernate")
+                .tag("type", type)
+                .register(meterRegistry);
+    }
+}
\ No newline at end of file
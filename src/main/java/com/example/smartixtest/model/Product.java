@@ -9,14 +9,22 @@ import java.math.BigDecimal;
 
 @Entity
 @Table(name = "products")
+@NamedEntityGraph(
+        name = Product.WITH_CATEGORY,
+        attributeNodes = @NamedAttributeNode("category"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 public class Product {
+
+    // Граф для чтения товара вместе с категорией одним запросом
+    public static final String WITH_CATEGORY = "Product.withCategory";
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Пулированная выдача id из последовательности, чтобы Hibernate мог батчить вставки
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "products_seq")
+    @SequenceGenerator(name = "products_seq", sequenceName = "products_seq", allocationSize = 50)
     private Long id;
     
     @Column(nullable = false)
@@ -27,13 +35,30 @@ public class Product {
     @Column(length = 1000)
     private String description;
     
-    @ManyToOne(cascade = CascadeType.PERSIST)
+    // Категории создаются только через CategoryResolver, каскад не нужен
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "category_id")
     private Category category;
     
     private String image;
     
-    @OneToOne(cascade = CascadeType.ALL, orphanRemoval = true)
-    @JoinColumn(name = "rating_id")
+    @Embedded
     private Rating rating;
+    
+    // Ключ товара во внешнем фиде: "<хост источника>:<id у поставщика>"
+    @Column(name = "external_id", unique = true)
+    private String externalId;
+    
+    // Хэш содержимого из фида, по нему импорт пропускает неизменившиеся товары
+    @Column(name = "content_hash")
+    private Long contentHash;
+    
+    // Мягкое удаление: товар пропал из фида, но строка остаётся в БД
+    @Column(nullable = false, columnDefinition = "boolean default false")
+    private boolean deleted;
+    
+    // Оптимистическая блокировка: растёт при каждом изменении товара и служит ETag
+    @Version
+    @Column(nullable = false)
+    private Long version;
 } 
\ No newline at end of file
@@ -6,19 +6,17 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
-@Entity
-@Table(name = "ratings")
+// Рейтинг хранится в колонках таблицы products, без отдельной таблицы и join
+@Embeddable
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 public class Rating {
     
-    @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
-    private Long id;
-    
+    @Column(name = "rating_rate")
     private Double rate;
     
+    @Column(name = "rating_count")
     private Integer count;
 } 
\ No newline at end of file
@@ -2,12 +2,29 @@ package com.example.smartixtest.repository;
 
 import com.example.smartixtest.model.Category;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface CategoryRepository extends JpaRepository<Category, Long> {
     
     Optional<Category> findByName(String name);
+    
+    List<Category> findByNameIn(Collection<String> names);
+    
+    // Вставка без ошибки при гонке: если категорию уже создала параллельная транзакция,
+    // строка не вставляется и транзакция вызывающего не помечается на откат.
+    // Конфликт возможен только по name (id из последовательности), поэтому без цели ON CONFLICT -
+    // в таком виде запрос понимает и H2 в тестах.
+    // Значение nextval не попадает в блоки, которые pooled-оптимизатор Hibernate выдаёт из той же последовательности
+    @Modifying
+    @Query(value = "INSERT INTO categories (id, name) VALUES (nextval('categories_seq'), :name) "
+            + "ON CONFLICT DO NOTHING", nativeQuery = true)
+    int insertIfAbsent(@Param("name") String name);
 } 
\ No newline at end of file
@@ -0,0 +1,13 @@
+package com.example.smartixtest.repository;
+
+import java.math.BigDecimal;
+
+// Категория и цена товара, для построения индекса категорий
+public interface ProductCategoryPrice {
+
+    Long getId();
+    
+    String getCategory();
+    
+    BigDecimal getPrice();
+}
\ No newline at end of file
@@ -0,0 +1,19 @@
+package com.example.smartixtest.repository;
+
+import java.math.BigDecimal;
+
+// Минимальный срез товара для сверки с фидом при импорте, без загрузки сущности
+public interface ProductImportState {
+
+    Long getId();
+    
+    String getExternalId();
+    
+    Long getContentHash();
+    
+    boolean isDeleted();
+    
+    String getCategory();
+    
+    BigDecimal getPrice();
+}
\ No newline at end of file
@@ -1,20 +1,125 @@
 package com.example.smartixtest.repository;
 
+import com.example.smartixtest.dto.CategoryStatsDto;
+import com.example.smartixtest.dto.ProductDto;
 import com.example.smartixtest.model.Product;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface ProductRepository extends JpaRepository<Product, Long> {
     
-    Page<Product> findByPriceBetween(BigDecimal minPrice, BigDecimal maxPrice, Pageable pageable);
+    // Категория ленивая, поэтому методы, загружающие сущности для маппинга в DTO,
+    // подтягивают её через entity graph одним запросом вместо N+1
+    @Override
+    @EntityGraph(Product.WITH_CATEGORY)
+    Optional<Product> findById(Long id);
     
-    @Query("SELECT DISTINCT p.category.name FROM Product p")
+    @Override
+    @EntityGraph(Product.WITH_CATEGORY)
+    List<Product> findAllById(Iterable<Long> ids);
+    
+    long countByDeletedFalse();
+    
+    long countByPriceBetweenAndDeletedFalse(BigDecimal minPrice, BigDecimal maxPrice);
+    
+    // Проекции только для чтения: DTO заполняется прямо из результата запроса,
+    // без гидрации сущностей и снимков для dirty checking. Мягко удалённые товары не отдаются
+    String DTO_SELECT = "SELECT new com.example.smartixtest.dto.ProductDto("
+            + "p.id, p.title, p.price, p.description, c.name, p.image, p.rating.rate, p.rating.count, p.version) "
+            + "FROM Product p LEFT JOIN p.category c WHERE p.deleted = false ";
+    
+    @Query(DTO_SELECT + "AND p.id = :id")
+    Optional<ProductDto> findDtoById(@Param("id") Long id);
+    
+    // Только версия по первичному ключу - для условных GET без загрузки товара
+    @Query("SELECT p.version FROM Product p WHERE p.id = :id AND p.deleted = false")
+    Optional<Long> findVersionById(@Param("id") Long id);
+    
+    @Query(DTO_SELECT + "AND p.id IN :ids")
+    List<ProductDto> findDtosByIdIn(@Param("ids") Collection<Long> ids);
+    
+    @Query(value = DTO_SELECT + "ORDER BY p.id",
+            countQuery = "SELECT count(p) FROM Product p WHERE p.deleted = false")
+    Page<ProductDto> findAllDtos(Pageable pageable);
+    
+    @Query(value = DTO_SELECT + "AND p.price BETWEEN :minPrice AND :maxPrice ORDER BY p.id",
+            countQuery = "SELECT count(p) FROM Product p "
+                    + "WHERE p.deleted = false AND p.price BETWEEN :minPrice AND :maxPrice")
+    Page<ProductDto> findDtosByPriceBetween(@Param("minPrice") BigDecimal minPrice,
+                                            @Param("maxPrice") BigDecimal maxPrice,
+                                            Pageable pageable);
+    
+    // Keyset-пагинация: поиск по (id) или (price, id) без OFFSET и без count-запроса
+    @Query(DTO_SELECT + "ORDER BY p.id")
+    List<ProductDto> findDtoPageStart(Pageable pageable);
+    
+    @Query(DTO_SELECT + "AND p.id > :lastId ORDER BY p.id")
+    List<ProductDto> findDtoPageAfter(@Param("lastId") Long lastId, Pageable pageable);
+    
+    @Query(DTO_SELECT + "AND p.price BETWEEN :minPrice AND :maxPrice ORDER BY p.price, p.id")
+    List<ProductDto> findDtoPriceRangeStart(@Param("minPrice") BigDecimal minPrice,
+                                            @Param("maxPrice") BigDecimal maxPrice,
+                                            Pageable pageable);
+    
+    @Query(DTO_SELECT + "AND p.price BETWEEN :minPrice AND :maxPrice "
+            + "AND (p.price > :lastPrice OR (p.price = :lastPrice AND p.id > :lastId)) "
+            + "ORDER BY p.price, p.id")
+    List<ProductDto> findDtoPriceRangeAfter(@Param("minPrice") BigDecimal minPrice,
+                                            @Param("maxPrice") BigDecimal maxPrice,
+                                            @Param("lastPrice") BigDecimal lastPrice,
+                                            @Param("lastId") Long lastId,
+                                            Pageable pageable);
+    
+    // Однонаправленный курсор для выгрузки каталога: строки читаются порциями по fetch size
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query(DTO_SELECT + "AND p.id > :sinceId ORDER BY p.id")
+    Stream<ProductDto> streamDtosAfter(@Param("sinceId") long sinceId);
+    
+    @Query("SELECT DISTINCT p.category.name FROM Product p WHERE p.deleted = false")
     List<String> findAllUniqueCategories();
+    
+    @Query("SELECT new com.example.smartixtest.dto.CategoryStatsDto(c.name, count(p), min(p.price), max(p.price)) "
+            + "FROM Product p JOIN p.category c WHERE p.deleted = false GROUP BY c.name ORDER BY c.name")
+    List<CategoryStatsDto> findCategoryStats();
+    
+    // Один проход по товарам для построения индекса категорий. Индекс хранит категорию каждого товара,
+    // чтобы повторно применённое событие не считалось дважды
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT p.id AS id, c.name AS category, p.price AS price "
+            + "FROM Product p JOIN p.category c WHERE p.deleted = false")
+    Stream<ProductCategoryPrice> streamCategoryPrices();
+    
+    // Сверка импорта: одним запросом на пачку, включая мягко удалённые товары,
+    // чтобы вернувшийся в фид товар восстанавливался, а не создавался заново
+    @Query("SELECT p.id AS id, p.externalId AS externalId, p.contentHash AS contentHash, p.deleted AS deleted, "
+            + "c.name AS category, p.price AS price "
+            + "FROM Product p LEFT JOIN p.category c WHERE p.externalId IN :externalIds")
+    List<ProductImportState> findImportStates(@Param("externalIds") Collection<String> externalIds);
+    
+    @Query("SELECT p.id AS id, p.externalId AS externalId, p.contentHash AS contentHash, p.deleted AS deleted, "
+            + "c.name AS category, p.price AS price "
+            + "FROM Product p LEFT JOIN p.category c "
+            + "WHERE p.deleted = false AND p.externalId LIKE CONCAT(:prefix, '%')")
+    List<ProductImportState> findActiveImportStates(@Param("prefix") String prefix);
+    
+    @Modifying
+    // Массовый UPDATE минует Hibernate, поэтому версия увеличивается явно
+    @Query("UPDATE Product p SET p.deleted = true, p.version = p.version + 1 WHERE p.id IN :ids")
+    int markDeleted(@Param("ids") Collection<Long> ids);
 } 
\ No newline at end of file
@@ -0,0 +1,420 @@
+package com.example.smartixtest.search;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Инвертированный индекс товаров в памяти по title и description.
+// Документы получают порядковые номера по мере добавления, поэтому списки вхождений
+// всегда отсортированы и пересекаются слиянием без сортировки. Изменение товара -
+// удаление и добавление заново, освободившиеся номера вычищаются компакцией.
+// Релевантность: TF-IDF, совпадение в названии весит больше совпадения в описании.
+// Класс не потокобезопасен, синхронизация на стороне вызывающего
+public class InvertedIndex {
+
+    static final float TITLE_BOOST = 3f;
+    
+    // Компакция, когда удалённых документов больше живых и их заметное количество
+    private static final int COMPACT_MIN_DEAD = 10_000;
+    
+    private static final int NO_CATEGORY = -1;
+    
+    // Префиксный поиск только от трёх символов и не больше чем по 16 самым частым термам,
+    // иначе короткий префикс разворачивается в значительную часть словаря
+    static final int MIN_PREFIX_LENGTH = 3;
+    static final int MAX_PREFIX_EXPANSIONS = 16;
+    
+    // Отсортированный словарь: префиксный поиск - это диапазон subMap
+    private final TreeMap<String, Postings> terms = new TreeMap<>();
+    private final Map<Long, Integer> docByProductId = new HashMap<>();
+    private final Map<String, Integer> categoryOrds = new HashMap<>();
+    private final BitSet live = new BitSet();
+    
+    private long[] productIds = new long[1024];
+    private int[] categories = new int[1024];
+    private BigDecimal[] prices = new BigDecimal[1024];
+    private int docCount;
+    private int liveCount;
+    
+    public void add(long productId, String title, String description, String category, BigDecimal price) {
+        remove(productId);
+        
+        int doc = docCount++;
+        if (doc == productIds.length) {
+            int capacity = productIds.length * 2;
+            productIds = Arrays.copyOf(productIds, capacity);
+            categories = Arrays.copyOf(categories, capacity);
+            prices = Arrays.copyOf(prices, capacity);
+        }
+        productIds[doc] = productId;
+        categories[doc] = category == null ? NO_CATEGORY : categoryOrds.computeIfAbsent(category, name -> categoryOrds.size());
+        prices[doc] = price;
+        live.set(doc);
+        liveCount++;
+        docByProductId.put(productId, doc);
+        
+        Map<String, Float> weights = new HashMap<>();
+        for (String term : Tokenizer.tokenize(title)) {
+            weights.merge(term, TITLE_BOOST, Float::sum);
+        }
+        for (String term : Tokenizer.tokenize(description)) {
+            weights.merge(term, 1f, Float::sum);
+        }
+        weights.forEach((term, weight) -> terms.computeIfAbsent(term, key -> new Postings()).add(doc, weight));
+    }
+    
+    public boolean remove(long productId) {
+        Integer doc = docByProductId.remove(productId);
+        if (doc == null) {
+            return false;
+        }
+        live.clear(doc);
+        prices[doc] = null;
+        liveCount--;
+        
+        int dead = docCount - liveCount;
+        if (dead > COMPACT_MIN_DEAD && dead > liveCount) {
+            compact();
+        }
+        return true;
+    }
+    
+    public int size() {
+        return liveCount;
+    }
+    
+    public SearchHits search(SearchQuery query, int offset, int limit) {
+        List<String> tokens = Tokenizer.tokenize(query.text());
+        if (tokens.isEmpty()) {
+            return SearchHits.EMPTY;
+        }
+        
+        int category = NO_CATEGORY;
+        if (query.category() != null) {
+            Integer ord = categoryOrds.get(query.category());
+            if (ord == null) {
+                return SearchHits.EMPTY;
+            }
+            category = ord;
+        }
+        
+        List<List<Postings>> perToken = new ArrayList<>(tokens.size());
+        for (int i = 0; i < tokens.size(); i++) {
+            List<Postings> lists = postings(tokens.get(i), i == tokens.size() - 1);
+            if (lists.isEmpty()) {
+                return SearchHits.EMPTY;
+            }
+            perToken.add(lists);
+        }
+        
+        // Начинаем с самого редкого слова: фильтры применяются к самому короткому списку,
+        // остальные слова только проверяются для уже найденных документов
+        perToken.sort(Comparator.comparingLong(InvertedIndex::totalSize));
+        Matches result = collect(perToken.get(0), category, query.minPrice(), query.maxPrice());
+        for (int i = 1; i < perToken.size() && result.size > 0; i++) {
+            result = result.intersect(perToken.get(i), this::idf);
+        }
+        
+        return new SearchHits(top(result, offset, limit), result.size);
+    }
+    
+    // Списки вхождений слова. Для последнего слова запроса длиной от MIN_PREFIX_LENGTH
+    // добавляются термы с этим префиксом, не больше MAX_PREFIX_EXPANSIONS самых частых
+    private List<Postings> postings(String token, boolean prefix) {
+        if (!prefix || token.length() < MIN_PREFIX_LENGTH) {
+            Postings postings = terms.get(token);
+            return postings == null ? List.of() : List.of(postings);
+        }
+        
+        List<Postings> lists = new ArrayList<>(terms.subMap(token, true, token + Character.MAX_VALUE, false).values());
+        if (lists.size() > MAX_PREFIX_EXPANSIONS) {
+            Postings exact = terms.get(token);
+            lists.sort((a, b) -> Integer.compare(b.size, a.size));
+            lists = new ArrayList<>(lists.subList(0, MAX_PREFIX_EXPANSIONS));
+            if (exact != null && !lists.contains(exact)) {
+                lists.set(MAX_PREFIX_EXPANSIONS - 1, exact);
+            }
+        }
+        return lists;
+    }
+    
+    private static long totalSize(List<Postings> lists) {
+        long total = 0;
+        for (Postings postings : lists) {
+            total += postings.size;
+        }
+        return total;
+    }
+    
+    private float idf(int documentFrequency) {
+        return (float) Math.log(1 + (double) Math.max(liveCount, 1) / documentFrequency);
+    }
+    
+    // Живые документы самого редкого слова, прошедшие фильтры
+    private Matches collect(List<Postings> lists, int category, BigDecimal minPrice, BigDecimal maxPrice) {
+        if (lists.size() == 1) {
+            Postings postings = lists.get(0);
+            float idf = idf(postings.size);
+            Matches matches = new Matches(postings.size);
+            for (int i = 0; i < postings.size; i++) {
+                int doc = postings.docs[i];
+                if (accepts(doc, category, minPrice, maxPrice)) {
+                    matches.append(doc, postings.weights[i] * idf);
+                }
+            }
+            return matches;
+        }
+        
+        // Несколько термов: упаковываем (документ, вес) в long, сортируем и складываем веса совпавших документов
+        long[] packed = new long[(int) totalSize(lists)];
+        int n = 0;
+        for (Postings postings : lists) {
+            float idf = idf(postings.size);
+            for (int i = 0; i < postings.size; i++) {
+                int doc = postings.docs[i];
+                if (accepts(doc, category, minPrice, maxPrice)) {
+                    packed[n++] = ((long) doc << 32)
+                            | (Float.floatToRawIntBits(postings.weights[i] * idf) & 0xFFFFFFFFL);
+                }
+            }
+        }
+        Arrays.sort(packed, 0, n);
+        
+        Matches matches = new Matches(n);
+        for (int i = 0; i < n; i++) {
+            int doc = (int) (packed[i] >>> 32);
+            float score = Float.intBitsToFloat((int) packed[i]);
+            if (matches.size > 0 && matches.docs[matches.size - 1] == doc) {
+                matches.scores[matches.size - 1] += score;
+            } else {
+                matches.append(doc, score);
+            }
+        }
+        return matches;
+    }
+    
+    private boolean accepts(int doc, int category, BigDecimal minPrice, BigDecimal maxPrice) {
+        if (!live.get(doc) || (category != NO_CATEGORY && categories[doc] != category)) {
+            return false;
+        }
+        if (minPrice == null && maxPrice == null) {
+            return true;
+        }
+        BigDecimal price = prices[doc];
+        return price != null
+                && (minPrice == null || price.compareTo(minPrice) >= 0)
+                && (maxPrice == null || price.compareTo(maxPrice) <= 0);
+    }
+    
+    // Частичная сортировка: куча на offset + limit лучших вместо сортировки всех совпадений
+    private List<Long> top(Matches matches, int offset, int limit) {
+        if (offset >= matches.size || limit <= 0) {
+            return List.of();
+        }
+        
+        // Корень кучи - худший из отобранных
+        int[] heap = new int[Math.min(offset + limit, matches.size)];
+        int heapSize = 0;
+        for (int i = 0; i < matches.size; i++) {
+            if (heapSize < heap.length) {
+                heap[heapSize] = i;
+                siftUp(matches, heap, heapSize++);
+            } else if (compareHits(matches, i, heap[0]) < 0) {
+                heap[0] = i;
+                siftDown(matches, heap, heapSize);
+            }
+        }
+        
+        // Разбираем кучу с конца: каждый раз снимается худший из оставшихся
+        int[] ranked = new int[heapSize];
+        for (int i = heapSize - 1; i >= 0; i--) {
+            ranked[i] = heap[0];
+            heap[0] = heap[--heapSize];
+            siftDown(matches, heap, heapSize);
+        }
+        
+        List<Long> ids = new ArrayList<>(ranked.length - offset);
+        for (int i = offset; i < ranked.length; i++) {
+            ids.add(productIds[matches.docs[ranked[i]]]);
+        }
+        return ids;
+    }
+    
+    private static void siftUp(Matches matches, int[] heap, int index) {
+        while (index > 0) {
+            int parent = (index - 1) / 2;
+            if (compareHits(matches, heap[index], heap[parent]) <= 0) {
+                return;
+            }
+            swap(heap, index, parent);
+            index = parent;
+        }
+    }
+    
+    private static void siftDown(Matches matches, int[] heap, int size) {
+        int index = 0;
+        while (true) {
+            int worst = index;
+            int left = 2 * index + 1;
+            int right = left + 1;
+            if (left < size && compareHits(matches, heap[left], heap[worst]) > 0) {
+                worst = left;
+            }
+            if (right < size && compareHits(matches, heap[right], heap[worst]) > 0) {
+                worst = right;
+            }
+            if (worst == index) {
+                return;
+            }
+            swap(heap, index, worst);
+            index = worst;
+        }
+    }
+    
+    private static void swap(int[] heap, int a, int b) {
+        int tmp = heap[a];
+        heap[a] = heap[b];
+        heap[b] = tmp;
+    }
+    
+    // Сначала более релевантные, при равенстве - добавленные раньше
+    private static int compareHits(Matches matches, int a, int b) {
+        int byScore = Float.compare(matches.scores[b], matches.scores[a]);
+        return byScore != 0 ? byScore : Integer.compare(matches.docs[a], matches.docs[b]);
+    }
+    
+    private void compact() {
+        int[] remap = new int[docCount];
+        int next = 0;
+        for (int doc = 0; doc < docCount; doc++) {
+            if (live.get(doc)) {
+                remap[doc] = next;
+                productIds[next] = productIds[doc];
+                categories[next] = categories[doc];
+                prices[next] = prices[doc];
+                next++;
+            } else {
+                remap[doc] = -1;
+            }
+        }
+        Arrays.fill(prices, next, docCount, null);
+        
+        Iterator<Postings> iterator = terms.values().iterator();
+        while (iterator.hasNext()) {
+            Postings postings = iterator.next();
+            postings.retain(remap);
+            if (postings.size == 0) {
+                iterator.remove();
+            }
+        }
+        docByProductId.replaceAll((productId, doc) -> remap[doc]);
+        
+        live.clear();
+        live.set(0, next);
+        docCount = next;
+    }
+    
+    // Список вхождений терма: номера документов по возрастанию и вес терма в документе
+    private static class Postings {
+        
+        private int[] docs = new int[4];
+        private float[] weights = new float[4];
+        private int size;
+        
+        void add(int doc, float weight) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                weights = Arrays.copyOf(weights, size * 2);
+            }
+            docs[size] = doc;
+            weights[size] = weight;
+            size++;
+        }
+        
+        // Позиция первого документа >= doc, начиная с from: удваиваем шаг, затем двоичный поиск
+        int seek(int doc, int from) {
+            int step = 1;
+            int high = from;
+            while (high < size && docs[high] < doc) {
+                from = high + 1;
+                high += step;
+                step <<= 1;
+            }
+            int index = Arrays.binarySearch(docs, from, Math.min(high + 1, size), doc);
+            return index >= 0 ? index : -index - 1;
+        }
+        
+        // Выбрасывает удалённые документы и перенумеровывает оставшиеся
+        void retain(int[] remap) {
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                int doc = remap[docs[i]];
+                if (doc >= 0) {
+                    docs[kept] = doc;
+                    weights[kept] = weights[i];
+                    kept++;
+                }
+            }
+            size = kept;
+        }
+    }
+    
+    @FunctionalInterface
+    private interface IntToFloatFunction {
+        
+        float apply(int value);
+    }
+    
+    // Совпавшие документы по возрастанию номера и их суммарная релевантность
+    private static class Matches {
+        
+        private final int[] docs;
+        private final float[] scores;
+        private int size;
+        
+        Matches(int capacity) {
+            docs = new int[capacity];
+            scores = new float[capacity];
+        }
+        
+        void append(int doc, float score) {
+            docs[size] = doc;
+            scores[size] = score;
+            size++;
+        }
+        
+        // Оставляет документы, встретившиеся хотя бы в одном из списков, и добавляет их вес.
+        // Документов в результате обычно намного меньше, чем в списках, поэтому по спискам
+        // идём экспоненциальным поиском, а не полным слиянием
+        Matches intersect(List<Postings> lists, IntToFloatFunction idf) {
+            float[] added = new float[size];
+            boolean[] found = new boolean[size];
+            for (Postings postings : lists) {
+                float weight = idf.apply(postings.size);
+                int from = 0;
+                for (int i = 0; i < size && from < postings.size; i++) {
+                    from = postings.seek(docs[i], from);
+                    if (from < postings.size && postings.docs[from] == docs[i]) {
+                        found[i] = true;
+                        added[i] += postings.weights[from] * weight;
+                    }
+                }
+            }
+            
+            Matches result = new Matches(size);
+            for (int i = 0; i < size; i++) {
+                if (found[i]) {
+                    result.append(docs[i], scores[i] + added[i]);
+                }
+            }
+            return result;
+        }
+    }
+}
\ No newline at end of file
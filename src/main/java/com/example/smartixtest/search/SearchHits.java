@@ -0,0 +1,9 @@
+package com.example.smartixtest.search;
+
+import java.util.List;
+
+// id товаров запрошенной страницы по убыванию релевантности и общее число совпадений
+public record SearchHits(List<Long> productIds, int total) {
+
+    public static final SearchHits EMPTY = new SearchHits(List.of(), 0);
+}
\ No newline at end of file
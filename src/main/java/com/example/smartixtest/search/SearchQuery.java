@@ -0,0 +1,8 @@
+package com.example.smartixtest.search;
+
+import java.math.BigDecimal;
+
+// Все слова запроса должны встретиться в товаре, последнее ищется по префиксу.
+// Фильтры category, minPrice и maxPrice необязательны
+public record SearchQuery(String text, String category, BigDecimal minPrice, BigDecimal maxPrice) {
+}
\ No newline at end of file
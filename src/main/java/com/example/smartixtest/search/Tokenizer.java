@@ -0,0 +1,45 @@
+package com.example.smartixtest.search;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Разбивает текст на термы: буквы и цифры в нижнем регистре, остальное - разделители.
+// Однобуквенные термы не индексируются, "ё" приводится к "е"
+public final class Tokenizer {
+
+    static final int MIN_TOKEN_LENGTH = 2;
+    
+    private Tokenizer() {
+    }
+    
+    public static List<String> tokenize(String text) {
+        if (text == null || text.isEmpty()) {
+            return List.of();
+        }
+        
+        List<String> tokens = new ArrayList<>();
+        StringBuilder token = new StringBuilder();
+        for (int i = 0; i < text.length(); i++) {
+            char ch = text.charAt(i);
+            if (Character.isLetterOrDigit(ch)) {
+                token.append(normalize(ch));
+            } else {
+                flush(token, tokens);
+            }
+        }
+        flush(token, tokens);
+        return tokens;
+    }
+    
+    private static char normalize(char ch) {
+        char lower = Character.toLowerCase(ch);
+        return lower == 'ё' ? 'е' : lower;
+    }
+    
+    private static void flush(StringBuilder token, List<String> tokens) {
+        if (token.length() >= MIN_TOKEN_LENGTH) {
+            tokens.add(token.toString());
+        }
+        token.setLength(0);
+    }
+}
\ No newline at end of file
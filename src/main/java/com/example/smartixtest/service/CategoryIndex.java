@@ -0,0 +1,16 @@
+package com.example.smartixtest.service;
+
+import com.example.smartixtest.dto.CategoryStatsDto;
+import java.util.List;
+
+public interface CategoryIndex {
+
+    // Имена категорий, в которых есть хотя бы один товар, по алфавиту
+    List<String> getCategoryNames();
+    
+    // Количество товаров и диапазон цен по каждой категории
+    List<CategoryStatsDto> getCategoryStats();
+    
+    // Полная перестройка индекса по БД
+    void rebuild();
+}
\ No newline at end of file
@@ -0,0 +1,19 @@
+package com.example.smartixtest.service;
+
+import com.example.smartixtest.model.Category;
+import java.util.Collection;
+import java.util.Map;
+
+public interface CategoryResolver {
+
+    // Категория по имени, отсутствующая в БД создаётся
+    Category resolve(String name);
+    
+    // Разрешение набора имён: запросы в БД только для имён, которых нет в кэше
+    Map<String, Category> resolveAll(Collection<String> names);
+    
+    // Сброс кэша
+    void evict(String name);
+    
+    void invalidateAll();
+}
\ No newline at end of file
@@ -0,0 +1,13 @@
+package com.example.smartixtest.service;
+
+import com.example.smartixtest.dto.ImportJobDto;
+
+public interface ImportJobService {
+
+    // Запуск импорта в фоне, одновременно выполняется не больше одной задачи
+    ImportJobDto startImport();
+    
+    ImportJobDto getJob(String jobId);
+    
+    ImportJobDto cancelJob(String jobId);
+}
\ No newline at end of file
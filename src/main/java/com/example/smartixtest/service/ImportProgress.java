@@ -0,0 +1,114 @@
+package com.example.smartixtest.service;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+// Живой прогресс импорта: обновляется потоками источников, читается эндпоинтом статуса
+public class ImportProgress {
+
+    private final LongAdder received = new LongAdder();
+    private final LongAdder imported = new LongAdder();
+    private final AtomicInteger sourcesCompleted = new AtomicInteger();
+    private final AtomicInteger failedSources = new AtomicInteger();
+    // Прочитанная часть тел источников, которые ещё загружаются, в долях источника
+    private final DoubleAdder sourcesPartlyRead = new DoubleAdder();
+    private volatile int sourcesTotal;
+    private volatile boolean cancelled;
+    
+    public void start(int sourcesTotal) {
+        this.sourcesTotal = sourcesTotal;
+    }
+    
+    public void productReceived() {
+        received.increment();
+    }
+    
+    public void chunkImported(int saved) {
+        imported.add(saved);
+    }
+    
+    // Счётчик прочитанных байт одного источника, выдаётся до начала загрузки
+    public SourceBytes sourceBytes() {
+        return new SourceBytes();
+    }
+    
+    public void sourceCompleted(SourceBytes bytes, boolean failed) {
+        bytes.retract();
+        sourcesCompleted.incrementAndGet();
+        if (failed) {
+            failedSources.incrementAndGet();
+        }
+    }
+    
+    public void cancel() {
+        cancelled = true;
+    }
+    
+    // Вызывается на каждом товаре, чтобы отмена останавливала импорт между пачками
+    public void checkNotCancelled() {
+        if (cancelled) {
+            throw new CancellationException("Импорт отменён");
+        }
+    }
+    
+    public boolean isCancelled() {
+        return cancelled;
+    }
+    
+    public long getReceived() {
+        return received.sum();
+    }
+    
+    public long getImported() {
+        return imported.sum();
+    }
+    
+    public int getSourcesTotal() {
+        return sourcesTotal;
+    }
+    
+    public int getSourcesCompleted() {
+        return sourcesCompleted.get();
+    }
+    
+    public int getFailedSources() {
+        return failedSources.get();
+    }
+    
+    // Завершённые источники плюс прочитанные доли тех, что загружаются и прислали Content-Length
+    public double getSourcesRead() {
+        return sourcesCompleted.get() + Math.max(sourcesPartlyRead.sum(), 0);
+    }
+    
+    // Пишет поток загрузки источника, сбрасывает поток, ждущий его завершения, поэтому synchronized
+    public class SourceBytes {
+        
+        private long expected = -1;
+        private long read;
+        private double reported;
+        
+        // Начало ответа; contentLength = -1, если размер неизвестен. Повторная попытка начинает счёт заново
+        public synchronized void start(long contentLength) {
+            retract();
+            expected = contentLength;
+            read = 0;
+        }
+        
+        public synchronized void read(long bytes) {
+            if (expected <= 0) {
+                return;
+            }
+            read += bytes;
+            double fraction = Math.min((double) read / expected, 1.0);
+            sourcesPartlyRead.add(fraction - reported);
+            reported = fraction;
+        }
+        
+        private synchronized void retract() {
+            sourcesPartlyRead.add(-reported);
+            reported = 0;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,11 @@
+package com.example.smartixtest.service;
+
+import com.example.smartixtest.dto.ProductBatchRequest;
+import com.example.smartixtest.dto.ProductBatchResponse;
+
+public interface ProductBatchService {
+
+    // Пакетные создание, обновление и удаление в одной транзакции. Невалидные элементы,
+    // ненайденные товары и конфликты версий пропускаются и возвращаются в результатах по элементам
+    ProductBatchResponse apply(ProductBatchRequest request);
+}
\ No newline at end of file
@@ -0,0 +1,15 @@
+package com.example.smartixtest.service;
+
+import com.example.smartixtest.dto.FacetSearchResponse;
+import java.math.BigDecimal;
+import java.util.Set;
+
+public interface ProductFacetService {
+
+    // Фильтрация по категориям, цене и рейтингу вместе со счётчиками фасетов за один проход
+    FacetSearchResponse filter(Set<String> categories, BigDecimal minPrice, BigDecimal maxPrice,
+                               Double minRate, Integer minCount, int page, int size);
+    
+    // Полная перестройка индекса по БД
+    void rebuild();
+}
\ No newline at end of file
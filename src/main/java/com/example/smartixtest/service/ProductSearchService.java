@@ -0,0 +1,15 @@
+package com.example.smartixtest.service;
+
+import com.example.smartixtest.dto.PageResponse;
+import com.example.smartixtest.dto.ProductDto;
+import java.math.BigDecimal;
+
+public interface ProductSearchService {
+
+    // Полнотекстовый поиск по названию и описанию с необязательными фильтрами по категории и цене
+    PageResponse<ProductDto> search(String query, String category, BigDecimal minPrice, BigDecimal maxPrice,
+                                    int page, int size);
+    
+    // Полная перестройка индекса по БД
+    void rebuild();
+}
\ No newline at end of file
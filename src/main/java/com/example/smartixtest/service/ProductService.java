@@ -1,22 +1,31 @@
 package com.example.smartixtest.service;
 
+import com.example.smartixtest.dto.CategoryStatsDto;
+import com.example.smartixtest.dto.CursorPageResponse;
+import com.example.smartixtest.dto.ImportSummaryDto;
 import com.example.smartixtest.dto.PageResponse;
 import com.example.smartixtest.dto.ProductDto;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.math.BigDecimal;
 import java.util.List;
 
 public interface ProductService {
     
-    // Импорт продуктов из внешнего API
-    List<ProductDto> importProductsFromExternalApi();
+    // Потоковый импорт продуктов из внешнего API пачками, прогресс пишется в progress
+    ImportSummaryDto importProductsFromExternalApi(ImportProgress progress);
     
     // CRUD операции
     ProductDto createProduct(ProductDto productDto);
     
     ProductDto getProductById(Long id);
     
+    // Текущая версия товара для условных запросов, без загрузки самого товара
+    long getProductVersion(Long id);
+    
     PageResponse<ProductDto> getAllProducts(int page, int size);
     
+    // Если в productDto указана версия, товар обновляется только при её совпадении с текущей
     ProductDto updateProduct(Long id, ProductDto productDto);
     
     void deleteProduct(Long id);
@@ -24,6 +33,18 @@ public interface ProductService {
     // Получение продуктов с фильтрацией по цене
     PageResponse<ProductDto> getProductsByPriceRange(BigDecimal minPrice, BigDecimal maxPrice, int page, int size);
     
+    // Курсорная (keyset) пагинация без OFFSET, count-запрос только при withTotal
+    CursorPageResponse<ProductDto> getAllProductsByCursor(String cursor, int size, boolean withTotal);
+    
+    CursorPageResponse<ProductDto> getProductsByPriceRangeByCursor(BigDecimal minPrice, BigDecimal maxPrice,
+                                                                   String cursor, int size, boolean withTotal);
+    
+    // Потоковая выгрузка каталога в NDJSON, начиная с товаров с ID больше sinceId
+    long exportProducts(Long sinceId, OutputStream out) throws IOException;
+    
     // Получение списка уникальных категорий
     List<String> getAllUniqueCategories();
+    
+    // Количество товаров и диапазон цен по каждой категории
+    List<CategoryStatsDto> getCategoryStats();
 } 
\ No newline at end of file
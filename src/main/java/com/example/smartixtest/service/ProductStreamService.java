@@ -0,0 +1,19 @@
+package com.example.smartixtest.service;
+
+import com.example.smartixtest.dto.CursorPageResponse;
+import com.example.smartixtest.dto.ProductDto;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+
+public interface ProductStreamService {
+
+    // Товар по ID без удержания потока запроса
+    Mono<ProductDto> getProduct(Long id);
+    
+    // Страницы каталога (или ценового диапазона, если заданы обе границы) начиная с cursor.
+    // Следующая страница читается из БД по мере того, как клиент принимает предыдущие
+    Flux<CursorPageResponse<ProductDto>> streamPages(BigDecimal minPrice, BigDecimal maxPrice,
+                                                     String cursor, int pageSize);
+}
\ No newline at end of file
@@ -0,0 +1,22 @@
+package com.example.smartixtest.service;
+
+import com.example.smartixtest.dto.ProductDto;
+
+import java.util.List;
+
+public interface RatingService {
+
+    // Принимает оценку покупателя: она складывается в памяти и пишется в БД пачкой при следующем flush
+    void addRating(Long productId, double rate);
+    
+    // Товар с учётом оценок, ещё не записанных в БД
+    ProductDto withLiveRating(ProductDto product);
+    
+    List<ProductDto> withLiveRatings(List<ProductDto> products);
+    
+    // Число незаписанных оценок товара для указанной версии из БД (входит в ETag)
+    long pendingCount(Long productId, long version);
+    
+    // Записывает накопленные оценки в БД, возвращает число обновлённых товаров
+    int flush();
+}
\ No newline at end of file
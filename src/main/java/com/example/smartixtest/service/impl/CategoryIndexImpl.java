@@ -0,0 +1,158 @@
+package com.example.smartixtest.service.impl;
+
+import com.example.smartixtest.dto.CategoryStatsDto;
+import com.example.smartixtest.event.ProductSnapshot;
+import com.example.smartixtest.event.ProductsChangedEvent;
+import com.example.smartixtest.repository.ProductCategoryPrice;
+import com.example.smartixtest.repository.ProductRepository;
+import com.example.smartixtest.service.CategoryIndex;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+// Индекс категорий в памяти: перестраивается при старте, дальше поддерживается
+// по событиям изменения товаров, так что список категорий стоит O(категорий), а не O(товаров).
+// Изменения, сделанные другими экземплярами приложения, видны только после rebuild
+@Service
+@Slf4j
+public class CategoryIndexImpl implements CategoryIndex {
+
+    private final ProductRepository productRepository;
+    private final TransactionTemplate readOnly;
+    
+    // Повтор события после перестройки безвреден: индекс помнит категорию и цену каждого товара
+    private final IncrementalIndex<Categories> index = new IncrementalIndex<>(Categories::new, Categories::apply);
+    
+    // До первой перестройки список и статистика отдаются запросами в БД
+    private volatile boolean ready;
+    
+    public CategoryIndexImpl(ProductRepository productRepository, PlatformTransactionManager transactionManager) {
+        this.productRepository = productRepository;
+        this.readOnly = new TransactionTemplate(transactionManager);
+        this.readOnly.setReadOnly(true);
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        rebuild();
+    }
+    
+    @Override
+    public void rebuild() {
+        Categories rebuilt = index.rebuild(target -> readOnly.executeWithoutResult(status -> {
+            try (Stream<ProductCategoryPrice> products = productRepository.streamCategoryPrices()) {
+                products.forEach(product -> target.add(product.getId(), product.getCategory(), product.getPrice()));
+            }
+        }));
+        ready = true;
+        log.info("Индекс категорий построен: {} категорий", rebuilt.categories.size());
+    }
+    
+    @TransactionalEventListener
+    public void onProductsChanged(ProductsChangedEvent event) {
+        index.apply(event);
+    }
+    
+    @Override
+    public List<String> getCategoryNames() {
+        if (!ready) {
+            return productRepository.findAllUniqueCategories();
+        }
+        return index.read(target -> target.categories.keySet().stream().sorted().toList());
+    }
+    
+    @Override
+    public List<CategoryStatsDto> getCategoryStats() {
+        if (!ready) {
+            return productRepository.findCategoryStats();
+        }
+        return index.read(target -> target.categories.entrySet().stream()
+                .map(entry -> CategoryStatsDto.builder()
+                        .name(entry.getKey())
+                        .productCount(entry.getValue().count)
+                        .minPrice(entry.getValue().prices.isEmpty() ? null : entry.getValue().prices.firstKey())
+                        .maxPrice(entry.getValue().prices.isEmpty() ? null : entry.getValue().prices.lastKey())
+                        .build())
+                .sorted(Comparator.comparing(CategoryStatsDto::getName))
+                .toList());
+    }
+    
+    // Категория и цена каждого товара и агрегаты по категориям. Изменение товара снимает
+    // его прежнее место по id, а не по before из события, поэтому повтор события безвреден
+    private static class Categories {
+        
+        private final Map<Long, Placement> products = new HashMap<>();
+        private final Map<String, CategoryEntry> categories = new HashMap<>();
+        
+        void apply(ProductsChangedEvent event) {
+            for (ProductsChangedEvent.Change change : event.changes()) {
+                if (change.before() != null && change.before().id() != null) {
+                    remove(change.before().id());
+                }
+                ProductSnapshot after = change.after();
+                if (after != null && after.id() != null) {
+                    remove(after.id());
+                    add(after.id(), after.category(), after.price());
+                }
+            }
+        }
+        
+        void add(Long id, String category, BigDecimal price) {
+            if (category == null) {
+                return;
+            }
+            products.put(id, new Placement(category, price));
+            categories.computeIfAbsent(category, name -> new CategoryEntry()).add(price);
+        }
+        
+        void remove(Long id) {
+            Placement placement = products.remove(id);
+            if (placement == null) {
+                return;
+            }
+            CategoryEntry entry = categories.get(placement.category());
+            if (entry != null && entry.remove(placement.price())) {
+                categories.remove(placement.category());
+            }
+        }
+    }
+    
+    private record Placement(String category, BigDecimal price) {
+    }
+    
+    // Цены категории хранятся мультимножеством (цена -> число товаров),
+    // поэтому min/max остаются точными и после удаления крайнего товара
+    private static class CategoryEntry {
+        
+        private long count;
+        private final TreeMap<BigDecimal, Long> prices = new TreeMap<>();
+        
+        void add(BigDecimal price) {
+            count++;
+            if (price != null) {
+                prices.merge(price, 1L, Long::sum);
+            }
+        }
+        
+        // true, если в категории не осталось товаров
+        boolean remove(BigDecimal price) {
+            count--;
+            if (price != null) {
+                prices.computeIfPresent(price, (key, products) -> products > 1 ? products - 1 : null);
+            }
+            return count <= 0;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,111 @@
+package com.example.smartixtest.service.impl;
+
+import com.example.smartixtest.model.Category;
+import com.example.smartixtest.repository.CategoryRepository;
+import com.example.smartixtest.service.CategoryResolver;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CategoryResolverImpl implements CategoryResolver {
+
+    private final CategoryRepository categoryRepository;
+    
+    // Категорий мало и они почти не меняются, поэтому храним их целиком (detached-сущности)
+    private final Map<String, Category> cache = new ConcurrentHashMap<>();
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        invalidateAll();
+        log.info("Кэш категорий прогрет: {} категорий", cache.size());
+    }
+    
+    // Категории читаются и создаются в транзакции вызывающего: без второго соединения из пула
+    // и без категорий, оставшихся в БД после отката его транзакции
+    @Override
+    @Transactional
+    public Category resolve(String name) {
+        Category category = cache.get(name);
+        return category != null ? category : resolveAll(List.of(name)).get(name);
+    }
+    
+    @Override
+    @Transactional
+    public Map<String, Category> resolveAll(Collection<String> names) {
+        Map<String, Category> resolved = new HashMap<>();
+        Set<String> missing = new LinkedHashSet<>();
+        for (String name : names) {
+            Category category = cache.get(name);
+            if (category != null) {
+                resolved.put(name, category);
+            } else {
+                missing.add(name);
+            }
+        }
+        
+        if (missing.isEmpty()) {
+            return resolved;
+        }
+        
+        // Одним запросом подтягиваем категории, созданные мимо кэша (другим экземпляром приложения)
+        List<Category> found = categoryRepository.findByNameIn(missing);
+        found.forEach(category -> missing.remove(category.getName()));
+        
+        if (!missing.isEmpty()) {
+            // При гонке на уникальном name вставка проигравшего ничего не делает,
+            // повторное чтение возвращает категорию победителя
+            missing.forEach(categoryRepository::insertIfAbsent);
+            found = new ArrayList<>(found);
+            found.addAll(categoryRepository.findByNameIn(missing));
+        }
+        
+        found.forEach(category -> resolved.put(category.getName(), category));
+        cacheAfterCommit(found);
+        return resolved;
+    }
+    
+    // В кэш категории попадают после коммита: при откате там не должно остаться категории,
+    // которой нет в БД
+    private void cacheAfterCommit(List<Category> categories) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            categories.forEach(category -> cache.put(category.getName(), category));
+            return;
+        }
+        
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                categories.forEach(category -> cache.put(category.getName(), category));
+            }
+        });
+    }
+    
+    @Override
+    public void evict(String name) {
+        cache.remove(name);
+    }
+    
+    @Override
+    public void invalidateAll() {
+        List<Category> categories = categoryRepository.findAll();
+        cache.clear();
+        categories.forEach(category -> cache.put(category.getName(), category));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,139 @@
+package com.example.smartixtest.service.impl;
+
+import com.example.smartixtest.dto.ProductDto;
+import com.example.smartixtest.service.ImportProgress;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.function.Consumer;
+
+// Потоково читает JSON-массив товаров одного источника и отдаёт товары по одному.
+// Временные ошибки повторяются с экспоненциальной задержкой, пока из источника
+// ещё ничего не отдано дальше (иначе повтор привёл бы к повторной записи)
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ExternalProductFetcher {
+
+    private final RestTemplate restTemplate;
+    private final ObjectMapper objectMapper;
+    
+    @Value("${external.api.max-attempts:3}")
+    private int maxAttempts;
+    
+    @Value("${external.api.retry-backoff:500ms}")
+    private Duration retryBackoff;
+    
+    // Возвращает число использованных попыток
+    public int fetch(String url, Consumer<ProductDto> sink) {
+        return fetch(url, sink, new ImportProgress().sourceBytes());
+    }
+    
+    // То же с учётом прочитанных байт тела для оценки оставшегося времени импорта
+    public int fetch(String url, Consumer<ProductDto> sink, ImportProgress.SourceBytes bytes) {
+        long backoffMs = retryBackoff.toMillis();
+        
+        for (int attempt = 1; ; attempt++) {
+            long[] delivered = {0};
+            try {
+                restTemplate.execute(url, HttpMethod.GET, null, response -> {
+                    bytes.start(response.getHeaders().getContentLength());
+                    readProducts(new CountingInputStream(response.getBody(), bytes), dto -> {
+                        delivered[0]++;
+                        sink.accept(dto);
+                    });
+                    return null;
+                });
+                return attempt;
+            } catch (RestClientException e) {
+                if (delivered[0] > 0 || attempt >= maxAttempts || !isRetryable(e)) {
+                    throw e;
+                }
+                log.warn("Ошибка при загрузке {} (попытка {} из {}), повтор через {} мс: {}",
+                        url, attempt, maxAttempts, backoffMs, e.getMessage());
+                sleep(backoffMs);
+                backoffMs *= 2;
+            }
+        }
+    }
+    
+    private void readProducts(InputStream body, Consumer<ProductDto> sink) throws IOException {
+        try (JsonParser parser = objectMapper.getFactory().createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new JsonParseException(parser, "Ожидался JSON-массив товаров");
+            }
+            
+            JsonToken token = parser.nextToken();
+            while (token == JsonToken.START_OBJECT) {
+                sink.accept(objectMapper.readValue(parser, ProductDto.class));
+                token = parser.nextToken();
+            }
+            // Поток, оборванный между товарами, - ошибка источника, а не конец фида
+            if (token != JsonToken.END_ARRAY) {
+                throw new JsonParseException(parser, "Фид оборван: нет конца JSON-массива товаров");
+            }
+        }
+    }
+    
+    // Ошибки чтения тела RestTemplate оборачивает в ResourceAccessException, но битый JSON
+    // при повторе придёт тем же
+    private boolean isRetryable(RestClientException e) {
+        return e instanceof ResourceAccessException && !(e.getCause() instanceof JsonProcessingException)
+                || e instanceof HttpServerErrorException
+                || e instanceof HttpClientErrorException.TooManyRequests;
+    }
+    
+    private void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ResourceAccessException("Загрузка прервана");
+        }
+    }
+    
+    private static class CountingInputStream extends FilterInputStream {
+        
+        private final ImportProgress.SourceBytes bytes;
+        
+        CountingInputStream(InputStream in, ImportProgress.SourceBytes bytes) {
+            super(in);
+            this.bytes = bytes;
+        }
+        
+        @Override
+        public int read() throws IOException {
+            int value = super.read();
+            if (value >= 0) {
+                bytes.read(1);
+            }
+            return value;
+        }
+        
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int count = super.read(buffer, offset, length);
+            if (count > 0) {
+                bytes.read(count);
+            }
+            return count;
+        }
+    }
+}
\ No newline at end of file
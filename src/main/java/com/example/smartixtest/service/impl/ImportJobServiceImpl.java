@@ -0,0 +1,235 @@
+package com.example.smartixtest.service.impl;
+
+import com.example.smartixtest.dto.ImportJobDto;
+import com.example.smartixtest.dto.ImportJobPhase;
+import com.example.smartixtest.dto.ImportSummaryDto;
+import com.example.smartixtest.exception.ConflictException;
+import com.example.smartixtest.exception.ResourceNotFoundException;
+import com.example.smartixtest.service.ImportJobService;
+import com.example.smartixtest.service.ImportProgress;
+import com.example.smartixtest.service.ProductService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ImportJobServiceImpl implements ImportJobService {
+
+    // Сколько завершённых задач хранить для запросов статуса
+    private static final int MAX_FINISHED_JOBS = 50;
+    
+    private final ProductService productService;
+    private final MeterRegistry meterRegistry;
+    
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Map<String, ImportJob> jobs = new ConcurrentHashMap<>();
+    private final Queue<String> history = new ConcurrentLinkedQueue<>();
+    
+    // Не больше одного импорта одновременно: параллельные импорты гонялись бы
+    // за создание одних и тех же категорий и перезаписывали бы одни и те же товары
+    private final AtomicReference<ImportJob> running = new AtomicReference<>();
+    
+    // Прогресс текущего импорта для дашбордов; без импорта значения нулевые
+    @PostConstruct
+    void registerMetrics() {
+        Gauge.builder("import.jobs.active", running, current -> current.get() != null ? 1 : 0)
+                .description("Выполняющиеся задачи импорта")
+                .register(meterRegistry);
+        Gauge.builder("import.rows.received", running, current -> {
+                    ImportJob job = current.get();
+                    return job != null ? job.progress.getReceived() : 0;
+                })
+                .description("Товаров получено текущим импортом")
+                .register(meterRegistry);
+        Gauge.builder("import.rows.per.second", running, current -> {
+                    ImportJob job = current.get();
+                    return job != null ? rowsPerSecond(job) : 0;
+                })
+                .description("Скорость сохранения текущего импорта")
+                .register(meterRegistry);
+    }
+    
+    @Override
+    public ImportJobDto startImport() {
+        ImportJob job = new ImportJob(UUID.randomUUID().toString());
+        if (!running.compareAndSet(null, job)) {
+            ImportJob current = running.get();
+            throw new ConflictException("Импорт уже выполняется"
+                    + (current != null ? ", задача: " + current.id : ""));
+        }
+        
+        jobs.put(job.id, job);
+        history.add(job.id);
+        evictFinishedJobs();
+        
+        try {
+            job.future = executor.submit(() -> run(job));
+        } catch (RuntimeException e) {
+            running.compareAndSet(job, null);
+            throw e;
+        }
+        
+        log.info("Запущена задача импорта {}", job.id);
+        return toDto(job);
+    }
+    
+    @Override
+    public ImportJobDto getJob(String jobId) {
+        return toDto(findJob(jobId));
+    }
+    
+    @Override
+    public ImportJobDto cancelJob(String jobId) {
+        ImportJob job = findJob(jobId);
+        if (job.finishedAt == null) {
+            log.info("Отменяем задачу импорта {}", jobId);
+            job.progress.cancel();
+            Future<?> future = job.future;
+            if (future != null) {
+                future.cancel(true);
+            }
+        }
+        return toDto(job);
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        ImportJob job = running.get();
+        if (job != null) {
+            job.progress.cancel();
+        }
+        executor.shutdownNow();
+    }
+    
+    private void run(ImportJob job) {
+        job.phase = ImportJobPhase.RUNNING;
+        try {
+            ImportSummaryDto summary = productService.importProductsFromExternalApi(job.progress);
+            job.summary = summary;
+            job.phase = job.progress.isCancelled() ? ImportJobPhase.CANCELLED : ImportJobPhase.COMPLETED;
+        } catch (Exception e) {
+            job.error = e.getMessage();
+            job.phase = job.progress.isCancelled() ? ImportJobPhase.CANCELLED : ImportJobPhase.FAILED;
+            if (job.phase == ImportJobPhase.FAILED) {
+                log.error("Задача импорта {} завершилась с ошибкой: {}", job.id, e.getMessage(), e);
+            }
+        } finally {
+            job.finishedAt = Instant.now();
+            running.compareAndSet(job, null);
+            recordFinished(job);
+            log.info("Задача импорта {} завершена: {}", job.id, job.phase);
+        }
+    }
+    
+    private void recordFinished(ImportJob job) {
+        Timer.builder("import.duration")
+                .description("Длительность задач импорта")
+                .tag("phase", job.phase.name())
+                .register(meterRegistry)
+                .record(Duration.between(job.startedAt, job.finishedAt));
+        Counter.builder("import.rows.imported")
+                .description("Товаров сохранено импортом")
+                .register(meterRegistry)
+                .increment(job.progress.getImported());
+    }
+    
+    private ImportJob findJob(String jobId) {
+        ImportJob job = jobs.get(jobId);
+        if (job == null) {
+            throw new ResourceNotFoundException("Задача импорта", "id", jobId);
+        }
+        return job;
+    }
+    
+    private void evictFinishedJobs() {
+        int excess = history.size() - MAX_FINISHED_JOBS;
+        for (String jobId : history) {
+            if (excess <= 0) {
+                break;
+            }
+            ImportJob job = jobs.get(jobId);
+            if (job == null || job.finishedAt != null) {
+                jobs.remove(jobId);
+                history.remove(jobId);
+                excess--;
+            }
+        }
+    }
+    
+    private ImportJobDto toDto(ImportJob job) {
+        ImportProgress progress = job.progress;
+        long elapsedMs = elapsedMs(job);
+        
+        // ETA по доле прочитанных источников: завершённые плюс прочитанная часть тела загружаемых
+        // (байты против Content-Length), поэтому оценка есть и у импорта из одного источника.
+        // Число товаров в фиде заранее неизвестно, источник без Content-Length учитывается по завершении
+        Long etaSeconds = null;
+        int completed = progress.getSourcesCompleted();
+        int total = progress.getSourcesTotal();
+        double read = progress.getSourcesRead();
+        if (job.finishedAt == null && read > 0 && read < total) {
+            etaSeconds = (long) (elapsedMs * (total - read) / read / 1000);
+        }
+        
+        return ImportJobDto.builder()
+                .jobId(job.id)
+                .phase(job.phase)
+                .startedAt(job.startedAt)
+                .finishedAt(job.finishedAt)
+                .sourcesTotal(total)
+                .sourcesCompleted(completed)
+                .failedSources(progress.getFailedSources())
+                .processed(progress.getReceived())
+                .imported(progress.getImported())
+                .rowsPerSecond(rowsPerSecond(job))
+                .etaSeconds(etaSeconds)
+                .error(job.error)
+                .summary(job.summary)
+                .build();
+    }
+    
+    private static long elapsedMs(ImportJob job) {
+        Instant end = job.finishedAt != null ? job.finishedAt : Instant.now();
+        return Math.max(Duration.between(job.startedAt, end).toMillis(), 1);
+    }
+    
+    private static double rowsPerSecond(ImportJob job) {
+        return job.progress.getImported() * 1000.0 / elapsedMs(job);
+    }
+    
+    private static class ImportJob {
+        
+        private final String id;
+        private final Instant startedAt = Instant.now();
+        private final ImportProgress progress = new ImportProgress();
+        private volatile ImportJobPhase phase = ImportJobPhase.QUEUED;
+        private volatile Instant finishedAt;
+        private volatile ImportSummaryDto summary;
+        private volatile String error;
+        private volatile Future<?> future;
+        
+        ImportJob(String id) {
+            this.id = id;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,87 @@
+package com.example.smartixtest.service.impl;
+
+import com.example.smartixtest.event.ProductsChangedEvent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+// Производный индекс товаров в памяти (поиск, фасеты, категории): строится из БД и поддерживается
+// по событиям изменения товаров. Чтение под read-блокировкой, события под write-блокировкой.
+// Перестройка читает БД без блокировки, пришедшие за это время события копятся и применяются
+// к новому индексу перед подменой. Событие, уже попавшее в прочитанные данные, применяется
+// повторно, поэтому применение события должно быть идемпотентным
+final class IncrementalIndex<I> {
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Supplier<I> factory;
+    private final BiConsumer<I, ProductsChangedEvent> applier;
+    private I index;
+    private List<ProductsChangedEvent> pending;
+    
+    IncrementalIndex(Supplier<I> factory, BiConsumer<I, ProductsChangedEvent> applier) {
+        this.factory = factory;
+        this.applier = applier;
+        this.index = factory.get();
+    }
+    
+    // loader заполняет пустой индекс из БД. Перестройки выполняются по одной; при ошибке
+    // чтения остаётся прежний индекс - события к нему применялись и во время перестройки
+    synchronized I rebuild(Consumer<I> loader) {
+        lock.writeLock().lock();
+        try {
+            pending = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        
+        I rebuilt = factory.get();
+        try {
+            loader.accept(rebuilt);
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                pending = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+        
+        lock.writeLock().lock();
+        try {
+            pending.forEach(event -> applier.accept(rebuilt, event));
+            pending = null;
+            index = rebuilt;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        return rebuilt;
+    }
+    
+    void apply(ProductsChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            if (pending != null) {
+                pending.add(event);
+            }
+            applier.accept(index, event);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    <R> R read(Function<I, R> reader) {
+        lock.readLock().lock();
+        try {
+            return reader.apply(index);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,321 @@
+package com.example.smartixtest.service.impl;
+
+import com.example.smartixtest.config.CacheConfig;
+import com.example.smartixtest.dto.BatchItemResultDto;
+import com.example.smartixtest.dto.BatchOperation;
+import com.example.smartixtest.dto.ProductBatchRequest;
+import com.example.smartixtest.dto.ProductBatchResponse;
+import com.example.smartixtest.dto.ProductDto;
+import com.example.smartixtest.event.ProductSnapshot;
+import com.example.smartixtest.event.ProductsChangedEvent;
+import com.example.smartixtest.exception.BadRequestException;
+import com.example.smartixtest.mapper.ProductMapper;
+import com.example.smartixtest.model.Category;
+import com.example.smartixtest.model.Product;
+import com.example.smartixtest.repository.ProductRepository;
+import com.example.smartixtest.service.CategoryResolver;
+import com.example.smartixtest.service.ProductBatchService;
+import io.micrometer.core.annotation.Timed;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+@Slf4j
+public class ProductBatchServiceImpl implements ProductBatchService {
+
+    private final ProductRepository productRepository;
+    private final CategoryResolver categoryResolver;
+    private final ProductMapper productMapper;
+    private final Validator validator;
+    private final CacheManager cacheManager;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    
+    // Ограничение размера пачки: вся пачка пишется одной транзакцией, а при сбое - по одному элементу
+    @Value("${products.batch.max-size:1000}")
+    private int maxBatchSize;
+    
+    public ProductBatchServiceImpl(ProductRepository productRepository, CategoryResolver categoryResolver,
+                                   ProductMapper productMapper, Validator validator, CacheManager cacheManager,
+                                   ApplicationEventPublisher eventPublisher,
+                                   PlatformTransactionManager transactionManager) {
+        this.productRepository = productRepository;
+        this.categoryResolver = categoryResolver;
+        this.productMapper = productMapper;
+        this.validator = validator;
+        this.cacheManager = cacheManager;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+    
+    @Override
+    @Timed(value = "product.batch", histogram = true)
+    public ProductBatchResponse apply(ProductBatchRequest request) {
+        List<ProductDto> creates = orEmpty(request.getCreate());
+        List<ProductDto> updates = orEmpty(request.getUpdate());
+        List<Long> deletes = orEmpty(request.getDelete());
+        
+        int size = creates.size() + updates.size() + deletes.size();
+        if (size == 0) {
+            throw new BadRequestException("Пачка не содержит операций");
+        }
+        if (size > maxBatchSize) {
+            throw new BadRequestException("Размер пачки " + size + " превышает допустимый " + maxBatchSize);
+        }
+        log.debug("Пакетная операция: создание {}, обновление {}, удаление {}",
+                creates.size(), updates.size(), deletes.size());
+        
+        List<BatchItemResultDto> results = new ArrayList<>(size);
+        List<Item> items = check(creates, updates, deletes, results);
+        
+        // Обычно вся пачка - одна транзакция и один flush. Если он не прошёл (товар изменили
+        // параллельно, нарушено ограничение), пачка откатывается и элементы повторяются по одному,
+        // каждый в своей транзакции: ошибка достаётся только своему элементу
+        List<Written> outcomes = new ArrayList<>();
+        if (!items.isEmpty()) {
+            try {
+                outcomes.add(transactionTemplate.execute(status -> write(items)));
+            } catch (DataAccessException | TransactionException e) {
+                log.warn("Пачка из {} элементов не записана целиком, повтор по одному: {}", items.size(), e.getMessage());
+                items.forEach(item -> outcomes.add(writeAlone(item)));
+            }
+        }
+        
+        // Кэш сбрасывается после коммита, как при импорте
+        Cache productCache = cacheManager.getCache(CacheConfig.PRODUCTS_CACHE);
+        for (Written outcome : outcomes) {
+            results.addAll(outcome.results());
+            if (productCache != null) {
+                outcome.changedIds().forEach(productCache::evict);
+            }
+        }
+        
+        results.sort(Comparator.comparing(BatchItemResultDto::getOperation)
+                .thenComparingInt(BatchItemResultDto::getIndex));
+        int failed = (int) results.stream().filter(result -> result.getError() != null).count();
+        return ProductBatchResponse.builder()
+                .succeeded(results.size() - failed)
+                .failed(failed)
+                .results(results)
+                .build();
+    }
+    
+    // Проверки без обращения к БД. Ошибки попадают в results, корректные элементы возвращаются
+    // в порядке применения: создания, обновления, удаления
+    private List<Item> check(List<ProductDto> creates, List<ProductDto> updates, List<Long> deletes,
+                             List<BatchItemResultDto> results) {
+        List<Item> items = new ArrayList<>(creates.size() + updates.size() + deletes.size());
+        for (int i = 0; i < creates.size(); i++) {
+            String error = validate(creates.get(i));
+            if (error != null) {
+                results.add(failure(BatchOperation.CREATE, i, null, 400, error));
+            } else {
+                items.add(new Item(BatchOperation.CREATE, i, creates.get(i), null));
+            }
+        }
+        
+        // Один товар не может встречаться в пачке дважды: порядок изменений был бы неочевиден
+        Set<Long> referencedIds = new HashSet<>();
+        for (int i = 0; i < updates.size(); i++) {
+            ProductDto dto = updates.get(i);
+            Long id = dto == null ? null : dto.getId();
+            String error = id == null ? "Не указан ID товара" : validate(dto);
+            if (error == null && !referencedIds.add(id)) {
+                error = "Товар с ID " + id + " встречается в пачке несколько раз";
+            }
+            if (error != null) {
+                results.add(failure(BatchOperation.UPDATE, i, id, 400, error));
+            } else {
+                items.add(new Item(BatchOperation.UPDATE, i, dto, id));
+            }
+        }
+        for (int i = 0; i < deletes.size(); i++) {
+            Long id = deletes.get(i);
+            if (id == null) {
+                results.add(failure(BatchOperation.DELETE, i, null, 400, "Не указан ID товара"));
+            } else if (!referencedIds.add(id)) {
+                results.add(failure(BatchOperation.DELETE, i, id, 400,
+                        "Товар с ID " + id + " встречается в пачке несколько раз"));
+            } else {
+                items.add(new Item(BatchOperation.DELETE, i, null, id));
+            }
+        }
+        return items;
+    }
+    
+    // Повтор одного элемента после отката пачки: ошибка записи становится результатом элемента
+    private Written writeAlone(Item item) {
+        try {
+            return transactionTemplate.execute(status -> write(List.of(item)));
+        } catch (OptimisticLockingFailureException e) {
+            return Written.failed(failure(item, 409, "Ресурс был изменён другим запросом, повторите операцию"));
+        } catch (DataIntegrityViolationException e) {
+            return Written.failed(failure(item, 409,
+                    "Нарушено ограничение целостности: " + e.getMostSpecificCause().getMessage()));
+        } catch (DataAccessException | TransactionException e) {
+            log.error("Не удалось записать элемент {} #{} пачки", item.operation(), item.index(), e);
+            return Written.failed(failure(item, 500, "Ошибка записи: " + e.getMessage()));
+        }
+    }
+    
+    // Записывает элементы в текущей транзакции: результаты и id изменённых и удалённых товаров
+    private Written write(List<Item> items) {
+        // Существующие товары и категории - по одному запросу на все элементы
+        Set<Long> referencedIds = new HashSet<>();
+        Set<String> categoryNames = new HashSet<>();
+        for (Item item : items) {
+            if (item.id() != null) {
+                referencedIds.add(item.id());
+            }
+            if (item.dto() != null && item.dto().getCategory() != null) {
+                categoryNames.add(item.dto().getCategory());
+            }
+        }
+        Map<Long, Product> existing = referencedIds.isEmpty()
+                ? Map.of()
+                : productRepository.findAllById(referencedIds).stream()
+                        .filter(product -> !product.isDeleted())
+                        .collect(Collectors.toMap(Product::getId, Function.identity()));
+        Map<String, Category> categories = categoryNames.isEmpty()
+                ? Map.of()
+                : categoryResolver.resolveAll(categoryNames);
+        
+        List<BatchItemResultDto> results = new ArrayList<>(items.size());
+        List<Change> applied = new ArrayList<>(items.size());
+        List<Product> toSave = new ArrayList<>(items.size());
+        List<Product> toDelete = new ArrayList<>();
+        for (Item item : items) {
+            ProductDto dto = item.dto();
+            if (item.operation() == BatchOperation.CREATE) {
+                Product product = productMapper.toEntity(dto);
+                // id выдаёт последовательность, как в одиночном создании
+                product.setId(null);
+                product.setCategory(dto.getCategory() == null ? null : categories.get(dto.getCategory()));
+                toSave.add(product);
+                applied.add(new Change(item, product, null));
+                continue;
+            }
+            
+            Product product = existing.get(item.id());
+            if (product == null) {
+                results.add(failure(item, 404, "Товар не найден с id : '" + item.id() + "'"));
+            } else if (item.operation() == BatchOperation.DELETE) {
+                toDelete.add(product);
+                applied.add(new Change(item, product, ProductSnapshot.of(product)));
+            } else if (dto.getVersion() != null && !dto.getVersion().equals(product.getVersion())) {
+                results.add(failure(item, 409,
+                        "Товар изменён: текущая версия " + product.getVersion() + ", ожидалась " + dto.getVersion()));
+            } else {
+                ProductSnapshot before = ProductSnapshot.of(product);
+                productMapper.updateEntityFromDto(dto, product);
+                if (dto.getCategory() != null) {
+                    product.setCategory(categories.get(dto.getCategory()));
+                }
+                toSave.add(product);
+                applied.add(new Change(item, product, before));
+            }
+        }
+        
+        // Один flush: вставки, обновления и удаления уходят JDBC-пачками (hibernate.jdbc.batch_size),
+        // после него у новых товаров есть id, у изменённых - новая версия
+        productRepository.saveAll(toSave);
+        productRepository.deleteAll(toDelete);
+        productRepository.flush();
+        
+        List<Long> changedIds = new ArrayList<>(applied.size());
+        List<ProductsChangedEvent.Change> changes = new ArrayList<>(applied.size());
+        for (Change change : applied) {
+            Product product = change.product();
+            BatchOperation operation = change.item().operation();
+            boolean deleted = operation == BatchOperation.DELETE;
+            results.add(BatchItemResultDto.builder()
+                    .operation(operation)
+                    .index(change.item().index())
+                    .id(product.getId())
+                    .status(switch (operation) {
+                        case CREATE -> 201;
+                        case UPDATE -> 200;
+                        case DELETE -> 204;
+                    })
+                    .version(deleted ? null : product.getVersion())
+                    .build());
+            changes.add(new ProductsChangedEvent.Change(change.before(), deleted ? null : ProductSnapshot.of(product)));
+            if (operation != BatchOperation.CREATE) {
+                changedIds.add(product.getId());
+            }
+        }
+        if (!changes.isEmpty()) {
+            eventPublisher.publishEvent(new ProductsChangedEvent(changes));
+        }
+        return new Written(results, changedIds);
+    }
+    
+    // Валидация как у одиночного эндпоинта (@Valid), но с ошибкой на элемент вместо 400 на весь запрос
+    private String validate(ProductDto dto) {
+        if (dto == null) {
+            return "Пустой элемент";
+        }
+        Set<ConstraintViolation<ProductDto>> violations = validator.validate(dto);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+    
+    private static BatchItemResultDto failure(Item item, int status, String error) {
+        return failure(item.operation(), item.index(), item.id(), status, error);
+    }
+    
+    private static BatchItemResultDto failure(BatchOperation operation, int index, Long id, int status, String error) {
+        return BatchItemResultDto.builder()
+                .operation(operation)
+                .index(index)
+                .id(id)
+                .status(status)
+                .error(error)
+                .build();
+    }
+    
+    private static <T> List<T> orEmpty(List<T> list) {
+        return list == null ? List.of() : list;
+    }
+    
+    // Элемент пачки после проверок; у создания нет id, у удаления - тела
+    private record Item(BatchOperation operation, int index, ProductDto dto, Long id) {
+    }
+    
+    private record Change(Item item, Product product, ProductSnapshot before) {
+    }
+    
+    // Итог одной транзакции: результаты элементов и id товаров для сброса из кэша после коммита
+    private record Written(List<BatchItemResultDto> results, List<Long> changedIds) {
+        
+        static Written failed(BatchItemResultDto result) {
+            return new Written(List.of(result), List.of());
+        }
+    }
+}
\ No newline at end of file
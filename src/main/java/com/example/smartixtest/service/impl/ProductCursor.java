@@ -0,0 +1,49 @@
+package com.example.smartixtest.service.impl;
+
+import com.example.smartixtest.exception.BadRequestException;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+// Позиция keyset-пагинации: последний отданный id и, для фильтра по цене, его цена.
+// Клиенту отдаётся в виде непрозрачной base64url-строки
+record ProductCursor(BigDecimal price, Long id) {
+
+    private static final String SEPARATOR = ":";
+    
+    static ProductCursor afterId(Long id) {
+        return new ProductCursor(null, id);
+    }
+    
+    static ProductCursor afterPriceAndId(BigDecimal price, Long id) {
+        return new ProductCursor(price, id);
+    }
+    
+    String encode() {
+        String raw = price == null ? String.valueOf(id) : price.toPlainString() + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    // Пустой курсор означает первую страницу
+    static ProductCursor decode(String cursor, boolean withPrice) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(SEPARATOR);
+            if (withPrice && separator > 0) {
+                return new ProductCursor(new BigDecimal(raw.substring(0, separator)),
+                        Long.valueOf(raw.substring(separator + 1)));
+            }
+            if (!withPrice && separator < 0) {
+                return new ProductCursor(null, Long.valueOf(raw));
+            }
+        } catch (IllegalArgumentException e) {
+            // некорректный base64 или число, ниже отвечаем 400
+        }
+        throw new BadRequestException("Некорректный курсор пагинации: " + cursor);
+    }
+}
\ No newline at end of file
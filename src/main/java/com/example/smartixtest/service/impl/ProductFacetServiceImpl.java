@@ -0,0 +1,136 @@
+package com.example.smartixtest.service.impl;
+
+import com.example.smartixtest.dto.FacetSearchResponse;
+import com.example.smartixtest.dto.PriceBucketDto;
+import com.example.smartixtest.dto.ProductDto;
+import com.example.smartixtest.event.ProductSnapshot;
+import com.example.smartixtest.event.ProductsChangedEvent;
+import com.example.smartixtest.exception.BadRequestException;
+import com.example.smartixtest.facet.FacetIndex;
+import com.example.smartixtest.facet.FacetQuery;
+import com.example.smartixtest.facet.FacetResult;
+import com.example.smartixtest.repository.ProductRepository;
+import com.example.smartixtest.service.ProductFacetService;
+import io.micrometer.core.annotation.Timed;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+// Фасетная фильтрация по колоночному индексу в памяти. Индекс строится при старте
+// и поддерживается по событиям изменения товаров, как и поисковый индекс
+@Service
+@Slf4j
+public class ProductFacetServiceImpl implements ProductFacetService {
+
+    private static final int MAX_RESULT_WINDOW = 10_000;
+    
+    private final ProductRepository productRepository;
+    private final TransactionTemplate readOnly;
+    private final List<BigDecimal> priceBuckets;
+    
+    private final IncrementalIndex<FacetIndex> index;
+    
+    public ProductFacetServiceImpl(ProductRepository productRepository, PlatformTransactionManager transactionManager,
+                                   @Value("${facets.price-buckets:0,10,25,50,100,250,500,1000}") List<BigDecimal> priceBuckets) {
+        this.productRepository = productRepository;
+        this.readOnly = new TransactionTemplate(transactionManager);
+        this.readOnly.setReadOnly(true);
+        this.priceBuckets = priceBuckets.stream().sorted().toList();
+        this.index = new IncrementalIndex<>(() -> new FacetIndex(this.priceBuckets), ProductFacetServiceImpl::apply);
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        rebuild();
+    }
+    
+    @Override
+    public void rebuild() {
+        FacetIndex rebuilt = index.rebuild(target -> readOnly.executeWithoutResult(status -> {
+            try (Stream<ProductDto> products = productRepository.streamDtosAfter(0L)) {
+                products.forEach(product -> target.add(product.getId(), product.getCategory(), product.getPrice(),
+                        product.getRating() != null ? product.getRating().getRate() : null,
+                        product.getRating() != null ? product.getRating().getCount() : null));
+            }
+        }));
+        log.info("Фасетный индекс построен: {} товаров", rebuilt.size());
+    }
+    
+    @TransactionalEventListener
+    public void onProductsChanged(ProductsChangedEvent event) {
+        index.apply(event);
+    }
+    
+    @Override
+    @Timed(value = "product.facets", histogram = true)
+    public FacetSearchResponse filter(Set<String> categories, BigDecimal minPrice, BigDecimal maxPrice,
+                                      Double minRate, Integer minCount, int page, int size) {
+        if (page < 0 || size < 1 || (page + 1L) * size > MAX_RESULT_WINDOW) {
+            throw new BadRequestException("Некорректная страница: глубина выдачи ограничена " + MAX_RESULT_WINDOW);
+        }
+        log.debug("Фасетная фильтрация: категории {}, цена от {} до {}, рейтинг от {}, оценок от {}",
+                categories, minPrice, maxPrice, minRate, minCount);
+        
+        FacetQuery query = new FacetQuery(categories, minPrice, maxPrice, minRate, minCount);
+        FacetResult result = index.read(target -> target.search(query, page * size, size));
+        
+        // DTO страницы одним запросом, порядок - по id, как в индексе
+        List<ProductDto> content = List.of();
+        if (!result.productIds().isEmpty()) {
+            Map<Long, ProductDto> found = productRepository.findDtosByIdIn(result.productIds()).stream()
+                    .collect(Collectors.toMap(ProductDto::getId, Function.identity()));
+            content = result.productIds().stream()
+                    .map(found::get)
+                    .filter(Objects::nonNull)
+                    .toList();
+        }
+        
+        List<PriceBucketDto> buckets = new ArrayList<>(priceBuckets.size());
+        for (int i = 0; i < priceBuckets.size(); i++) {
+            buckets.add(PriceBucketDto.builder()
+                    .from(priceBuckets.get(i))
+                    .to(i + 1 < priceBuckets.size() ? priceBuckets.get(i + 1) : null)
+                    .count(result.priceBucketCounts()[i])
+                    .build());
+        }
+        
+        int totalPages = (result.total() + size - 1) / size;
+        return FacetSearchResponse.builder()
+                .content(content)
+                .pageNo(page)
+                .pageSize(size)
+                .totalElements(result.total())
+                .totalPages(totalPages)
+                .last(page >= totalPages - 1)
+                .categories(result.categoryCounts())
+                .priceBuckets(buckets)
+                .build();
+    }
+    
+    private static void apply(FacetIndex target, ProductsChangedEvent event) {
+        for (ProductsChangedEvent.Change change : event.changes()) {
+            if (change.before() != null && change.before().id() != null) {
+                target.remove(change.before().id());
+            }
+            ProductSnapshot after = change.after();
+            if (after != null && after.id() != null) {
+                target.add(after.id(), after.category(), after.price(), after.rate(), after.count());
+            }
+        }
+    }
+}
\ No newline at end of file
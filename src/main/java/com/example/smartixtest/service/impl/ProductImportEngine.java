@@ -0,0 +1,258 @@
+package com.example.smartixtest.service.impl;
+
+import com.example.smartixtest.config.CacheConfig;
+import com.example.smartixtest.dto.ImportSourceResultDto;
+import com.example.smartixtest.dto.ImportSummaryDto;
+import com.example.smartixtest.dto.ProductDto;
+import com.example.smartixtest.service.ImportProgress;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientException;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Параллельный импорт из нескольких источников на виртуальных потоках.
+// Одновременно обрабатывается не больше external.api.max-concurrency источников:
+// каждый держит соединение с БД на время записи пачки, поэтому лимит должен
+// быть заметно меньше размера пула соединений
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ProductImportEngine {
+
+    private final ExternalProductFetcher externalProductFetcher;
+    private final ProductImportWriter productImportWriter;
+    private final CacheManager cacheManager;
+    
+    @Value("${external.api.chunk-size:500}")
+    private int chunkSize;
+    
+    @Value("${external.api.max-concurrency:4}")
+    private int maxConcurrency;
+    
+    @Value("${external.api.source-timeout:5m}")
+    private Duration sourceTimeout;
+    
+    // Мягко удалять товары, которых больше нет в фиде. Выполняется только после
+    // полностью успешного прохода всех источников, иначе сбой сети "удалил" бы каталог
+    @Value("${external.api.soft-delete-missing:false}")
+    private boolean softDeleteMissing;
+    
+    public ImportSummaryDto importFrom(List<String> urls, ImportProgress progress) {
+        long startedAt = System.nanoTime();
+        progress.start(urls.size());
+        Semaphore permits = new Semaphore(maxConcurrency);
+        List<ImportSourceResultDto> results = new ArrayList<>(urls.size());
+        Set<String> seenExternalIds = softDeleteMissing ? ConcurrentHashMap.newKeySet() : null;
+        
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<ImportSourceResultDto>> futures = new ArrayList<>(urls.size());
+            for (String url : urls) {
+                futures.add(executor.submit(() -> importSource(url, progress, permits, executor, seenExternalIds)));
+            }
+            for (Future<ImportSourceResultDto> future : futures) {
+                results.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RestClientException("Импорт прерван");
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Ошибка при импорте товаров", e.getCause());
+        }
+        
+        ImportSummaryDto summary = summarize(results, startedAt);
+        if (!progress.isCancelled() && !results.isEmpty() && summary.getFailedSources() == results.size()) {
+            throw new RestClientException("Не удалось загрузить ни один источник: " + results.get(0).getError());
+        }
+        
+        if (seenExternalIds != null && !progress.isCancelled() && summary.getFailedSources() == 0) {
+            summary.setSoftDeleted(softDeleteMissingProducts(urls, seenExternalIds));
+        }
+        return summary;
+    }
+    
+    // Таймаут отсчитывается с момента получения разрешения, а не с момента постановки в очередь
+    private ImportSourceResultDto importSource(String url, ImportProgress progress, Semaphore permits,
+                                               ExecutorService executor, Set<String> seenExternalIds)
+            throws InterruptedException {
+        ImportSourceResultDto result = ImportSourceResultDto.builder().url(url).build();
+        ImportProgress.SourceBytes bytes = progress.sourceBytes();
+        
+        permits.acquire();
+        // Разрешение освобождает тот, кто владеет загрузкой: задача, если успела начаться, иначе этот метод.
+        // Прерванная по таймауту задача ещё держит соединения с источником и БД, пока не завершится
+        AtomicBoolean started = new AtomicBoolean();
+        try {
+            progress.checkNotCancelled();
+            Future<?> fetch = executor.submit(() -> {
+                if (!started.compareAndSet(false, true)) {
+                    return;
+                }
+                try {
+                    fetchSource(result, progress, bytes, seenExternalIds);
+                } finally {
+                    permits.release();
+                }
+            });
+            try {
+                fetch.get(sourceTimeout.toMillis(), TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                fetch.cancel(true);
+                result.setError("Превышено время загрузки источника: " + sourceTimeout);
+            } catch (ExecutionException e) {
+                // Источник оборван после части товаров: уже записанные пачки остаются, но источник
+                // считается неудачным, поэтому мягкое удаление пропавших товаров не выполняется
+                result.setError(result.getReceived() > 0
+                        ? "Загрузка прервана после " + result.getReceived() + " товаров: " + e.getCause()
+                        : e.getCause().toString());
+            }
+        } catch (CancellationException e) {
+            result.setError(e.getMessage());
+        } finally {
+            if (started.compareAndSet(false, true)) {
+                permits.release();
+            }
+        }
+        progress.sourceCompleted(bytes, result.getError() != null);
+        
+        if (result.getError() != null) {
+            log.error("Источник {} загружен с ошибкой: {}", url, result.getError());
+        }
+        return result;
+    }
+    
+    private void fetchSource(ImportSourceResultDto result, ImportProgress progress, ImportProgress.SourceBytes bytes,
+                             Set<String> seenExternalIds) {
+        ChunkBuffer buffer = new ChunkBuffer(result, progress, sourceKey(result.getUrl()), seenExternalIds);
+        result.setAttempts(externalProductFetcher.fetch(result.getUrl(), buffer::add, bytes));
+        buffer.flush();
+        log.info("Источник {}: получено {}, сохранено {}, без изменений {}",
+                result.getUrl(), result.getReceived(), result.getImported(), result.getUnchanged());
+    }
+    
+    // id поставщика уникален в пределах фида: ключ - хост, порт и путь без параметров запроса.
+    // Страницы одного фида (?page=N) делят ключ, разные фиды одного хоста - нет
+    static String sourceKey(String url) {
+        URI uri = URI.create(url);
+        if (uri.getHost() == null) {
+            return url;
+        }
+        String path = uri.getRawPath() == null ? "" : uri.getRawPath();
+        while (path.endsWith("/")) {
+            path = path.substring(0, path.length() - 1);
+        }
+        return uri.getHost() + (uri.getPort() >= 0 ? ":" + uri.getPort() : "") + path;
+    }
+    
+    private long softDeleteMissingProducts(List<String> urls, Set<String> seenExternalIds) {
+        Set<String> sourceKeys = new LinkedHashSet<>();
+        urls.forEach(url -> sourceKeys.add(sourceKey(url)));
+        
+        List<Long> deletedIds = productImportWriter.softDeleteMissing(sourceKeys, seenExternalIds);
+        Cache productCache = cacheManager.getCache(CacheConfig.PRODUCTS_CACHE);
+        if (productCache != null) {
+            deletedIds.forEach(productCache::evict);
+        }
+        log.info("Мягко удалено товаров, пропавших из фида: {}", deletedIds.size());
+        return deletedIds.size();
+    }
+    
+    private ImportSummaryDto summarize(List<ImportSourceResultDto> results, long startedAt) {
+        ImportSummaryDto summary = new ImportSummaryDto();
+        for (ImportSourceResultDto result : results) {
+            summary.setReceived(summary.getReceived() + result.getReceived());
+            summary.setImported(summary.getImported() + result.getImported());
+            summary.setUnchanged(summary.getUnchanged() + result.getUnchanged());
+            summary.setDuplicates(summary.getDuplicates() + result.getDuplicates());
+            summary.setChunks(summary.getChunks() + result.getChunks());
+            if (result.getError() != null) {
+                summary.setFailedSources(summary.getFailedSources() + 1);
+            }
+        }
+        
+        long durationMs = Duration.ofNanos(System.nanoTime() - startedAt).toMillis();
+        summary.setDurationMs(durationMs);
+        summary.setRowsPerSecond(durationMs > 0 ? summary.getImported() * 1000.0 / durationMs : summary.getImported());
+        summary.setSources(results);
+        return summary;
+    }
+    
+    // Пачка одного источника: дубликаты по внешнему ключу внутри пачки отбрасываются,
+    // каждая пачка пишется в своей транзакции
+    private class ChunkBuffer {
+        
+        private final ImportSourceResultDto result;
+        private final ImportProgress progress;
+        private final String sourceKey;
+        private final Set<String> seenExternalIds;
+        private final Map<String, ProductDto> byExternalId = new LinkedHashMap<>();
+        
+        ChunkBuffer(ImportSourceResultDto result, ImportProgress progress, String sourceKey,
+                    Set<String> seenExternalIds) {
+            this.result = result;
+            this.progress = progress;
+            this.sourceKey = sourceKey;
+            this.seenExternalIds = seenExternalIds;
+        }
+        
+        void add(ProductDto dto) {
+            progress.checkNotCancelled();
+            result.setReceived(result.getReceived() + 1);
+            progress.productReceived();
+            
+            String externalId = productImportWriter.externalId(sourceKey, dto);
+            if (byExternalId.putIfAbsent(externalId, dto) != null) {
+                result.setDuplicates(result.getDuplicates() + 1);
+            } else if (seenExternalIds != null) {
+                seenExternalIds.add(externalId);
+            }
+            
+            if (byExternalId.size() >= chunkSize) {
+                flush();
+            }
+        }
+        
+        void flush() {
+            if (byExternalId.isEmpty()) {
+                return;
+            }
+            
+            List<ProductDto> products = new ArrayList<>(byExternalId.values());
+            
+            ProductImportWriter.ChunkResult written = productImportWriter.writeChunk(sourceKey, products);
+            result.setImported(result.getImported() + written.written());
+            result.setUnchanged(result.getUnchanged() + written.unchanged());
+            result.setChunks(result.getChunks() + 1);
+            progress.chunkImported(written.written());
+            
+            // Пачка закоммичена: сбрасываем из кэша товары, которые она обновила
+            Cache productCache = cacheManager.getCache(CacheConfig.PRODUCTS_CACHE);
+            if (productCache != null) {
+                written.updatedIds().forEach(productCache::evict);
+            }
+            
+            byExternalId.clear();
+        }
+    }
+}
\ No newline at end of file
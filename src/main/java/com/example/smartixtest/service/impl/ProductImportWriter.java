@@ -0,0 +1,162 @@
+package com.example.smartixtest.service.impl;
+
+import com.example.smartixtest.dto.ProductDto;
+import com.example.smartixtest.event.ProductSnapshot;
+import com.example.smartixtest.event.ProductsChangedEvent;
+import com.example.smartixtest.mapper.ProductMapper;
+import com.example.smartixtest.model.Category;
+import com.example.smartixtest.model.Product;
+import com.example.smartixtest.repository.ProductImportState;
+import com.example.smartixtest.repository.ProductRepository;
+import com.example.smartixtest.service.CategoryResolver;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Сохраняет одну пачку импортируемых товаров в отдельной транзакции,
+// чтобы импорт большого фида не держал одну длинную транзакцию
+@Component
+@RequiredArgsConstructor
+public class ProductImportWriter {
+
+    private static final int DELETE_BATCH_SIZE = 1000;
+    
+    private final ProductRepository productRepository;
+    private final CategoryResolver categoryResolver;
+    private final ProductMapper productMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    
+    // Итог записи пачки; updatedIds нужны, чтобы сбросить обновлённые товары из кэша
+    public record ChunkResult(int written, int unchanged, List<Long> updatedIds) {
+    }
+    
+    // Внешний ключ товара: id поставщика уникален только в пределах своего источника.
+    // Товар без id ключуется хэшем содержимого, чтобы повторная синхронизация находила его,
+    // а не создавала копию. Изменившийся товар без id приходит как новый, а прежнюю запись
+    // убирает мягкое удаление пропавших из фида
+    public String externalId(String sourceKey, ProductDto dto) {
+        return dto.getId() != null
+                ? sourceKey + ":" + dto.getId()
+                : sourceKey + ":#" + Long.toHexString(productMapper.contentHash(dto));
+    }
+    
+    // Инкрементальная синхронизация: товары сверяются с БД по externalId и хэшу содержимого.
+    // Неизменившиеся не пишутся вовсе, изменившиеся и новые уходят батчами UPDATE/INSERT.
+    // Вместо INSERT ... ON CONFLICT DO UPDATE - сверка одним SELECT и батчи Hibernate:
+    // так обновление проходит через @Version, а события индексов получают состояние до и после
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public ChunkResult writeChunk(String sourceKey, List<ProductDto> chunk) {
+        // Состояние существующих товаров читаем одним лёгким запросом, без гидрации сущностей
+        List<String> externalIds = chunk.stream()
+                .map(dto -> externalId(sourceKey, dto))
+                .toList();
+        Map<String, ProductImportState> states = productRepository.findImportStates(externalIds).stream()
+                .collect(Collectors.toMap(ProductImportState::getExternalId, Function.identity()));
+        
+        List<ProductDto> changed = new ArrayList<>(chunk.size());
+        List<String> changedExternalIds = new ArrayList<>(chunk.size());
+        List<Long> hashes = new ArrayList<>(chunk.size());
+        List<Long> changedIds = new ArrayList<>();
+        int unchanged = 0;
+        for (int i = 0; i < chunk.size(); i++) {
+            ProductDto dto = chunk.get(i);
+            long hash = productMapper.contentHash(dto);
+            ProductImportState state = states.get(externalIds.get(i));
+            if (state != null && !state.isDeleted() && Objects.equals(state.getContentHash(), hash)) {
+                unchanged++;
+                continue;
+            }
+            if (state != null) {
+                changedIds.add(state.getId());
+            }
+            changed.add(dto);
+            changedExternalIds.add(externalIds.get(i));
+            hashes.add(hash);
+        }
+        if (changed.isEmpty()) {
+            return new ChunkResult(0, unchanged, List.of());
+        }
+        
+        // Все категории пачки разрешаются разом, запросы в БД только для новых имён
+        Set<String> categoryNames = changed.stream()
+                .map(ProductDto::getCategory)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<String, Category> categories = categoryResolver.resolveAll(categoryNames);
+        
+        // Сущности загружаем только для изменившихся товаров
+        Map<String, Product> existing = changedIds.isEmpty()
+                ? Map.of()
+                : productRepository.findAllById(changedIds).stream()
+                        .collect(Collectors.toMap(Product::getExternalId, Function.identity()));
+        
+        List<Product> products = new ArrayList<>(changed.size());
+        List<ProductSnapshot> before = new ArrayList<>(changed.size());
+        for (int i = 0; i < changed.size(); i++) {
+            ProductDto dto = changed.get(i);
+            String externalId = changedExternalIds.get(i);
+            Product product = existing.get(externalId);
+            before.add(ProductSnapshot.of(product));
+            if (product != null) {
+                productMapper.updateEntityFromDto(dto, product);
+                product.setDeleted(false);
+            } else {
+                product = productMapper.toEntity(dto);
+                // id выдаёт последовательность, id поставщика хранится в externalId
+                product.setId(null);
+                product.setExternalId(externalId);
+            }
+            product.setContentHash(hashes.get(i));
+        
+            if (dto.getCategory() != null) {
+                product.setCategory(categories.get(dto.getCategory()));
+            }
+            products.add(product);
+        }
+        
+        productRepository.saveAll(products);
+        
+        List<ProductsChangedEvent.Change> changes = new ArrayList<>(products.size());
+        for (int i = 0; i < products.size(); i++) {
+            changes.add(new ProductsChangedEvent.Change(before.get(i), ProductSnapshot.of(products.get(i))));
+        }
+        eventPublisher.publishEvent(new ProductsChangedEvent(changes));
+        return new ChunkResult(products.size(), unchanged, changedIds);
+    }
+    
+    // Мягко удаляет товары источников, которых не было в последнем полном проходе фида.
+    // Возвращает id удалённых товаров
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public List<Long> softDeleteMissing(Collection<String> sourceKeys, Set<String> seenExternalIds) {
+        List<Long> missing = new ArrayList<>();
+        List<ProductsChangedEvent.Change> changes = new ArrayList<>();
+        for (String sourceKey : sourceKeys) {
+            String prefix = sourceKey + ":";
+            for (ProductImportState state : productRepository.findActiveImportStates(prefix)) {
+                // LIKE трактует '_' в хосте как шаблон, поэтому префикс проверяем ещё раз
+                if (state.getExternalId().startsWith(prefix) && !seenExternalIds.contains(state.getExternalId())) {
+                    missing.add(state.getId());
+                    changes.add(new ProductsChangedEvent.Change(
+                            ProductSnapshot.removed(state.getId(), state.getCategory(), state.getPrice()), null));
+                }
+            }
+        }
+        
+        for (int from = 0; from < missing.size(); from += DELETE_BATCH_SIZE) {
+            productRepository.markDeleted(missing.subList(from, Math.min(from + DELETE_BATCH_SIZE, missing.size())));
+        }
+        eventPublisher.publishEvent(new ProductsChangedEvent(changes));
+        return missing;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,119 @@
+package com.example.smartixtest.service.impl;
+
+import com.example.smartixtest.dto.PageResponse;
+import com.example.smartixtest.dto.ProductDto;
+import com.example.smartixtest.event.ProductSnapshot;
+import com.example.smartixtest.event.ProductsChangedEvent;
+import com.example.smartixtest.exception.BadRequestException;
+import com.example.smartixtest.repository.ProductRepository;
+import com.example.smartixtest.search.InvertedIndex;
+import com.example.smartixtest.search.SearchHits;
+import com.example.smartixtest.search.SearchQuery;
+import com.example.smartixtest.service.ProductSearchService;
+import io.micrometer.core.annotation.Timed;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+// Поиск по индексу в памяти: индекс строится при старте и поддерживается по событиям
+// изменения товаров, как и индекс категорий. Из БД читаются только DTO найденной страницы
+@Service
+@Slf4j
+public class ProductSearchServiceImpl implements ProductSearchService {
+
+    private static final int MAX_RESULT_WINDOW = 10_000;
+    
+    private final ProductRepository productRepository;
+    private final TransactionTemplate readOnly;
+    
+    private final IncrementalIndex<InvertedIndex> index =
+            new IncrementalIndex<>(InvertedIndex::new, ProductSearchServiceImpl::apply);
+    
+    public ProductSearchServiceImpl(ProductRepository productRepository, PlatformTransactionManager transactionManager) {
+        this.productRepository = productRepository;
+        this.readOnly = new TransactionTemplate(transactionManager);
+        this.readOnly.setReadOnly(true);
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        rebuild();
+    }
+    
+    @Override
+    public void rebuild() {
+        InvertedIndex rebuilt = index.rebuild(target -> readOnly.executeWithoutResult(status -> {
+            try (Stream<ProductDto> products = productRepository.streamDtosAfter(0L)) {
+                products.forEach(product -> target.add(product.getId(), product.getTitle(),
+                        product.getDescription(), product.getCategory(), product.getPrice()));
+            }
+        }));
+        log.info("Поисковый индекс построен: {} товаров", rebuilt.size());
+    }
+    
+    @TransactionalEventListener
+    public void onProductsChanged(ProductsChangedEvent event) {
+        index.apply(event);
+    }
+    
+    @Override
+    @Timed(value = "product.search", histogram = true)
+    public PageResponse<ProductDto> search(String query, String category, BigDecimal minPrice, BigDecimal maxPrice,
+                                           int page, int size) {
+        if (query == null || query.isBlank()) {
+            throw new BadRequestException("Поисковый запрос не должен быть пустым");
+        }
+        if (page < 0 || size < 1 || (page + 1L) * size > MAX_RESULT_WINDOW) {
+            throw new BadRequestException("Некорректная страница: глубина выдачи ограничена " + MAX_RESULT_WINDOW);
+        }
+        log.debug("Поиск товаров: '{}', категория: {}, цена от {} до {}", query, category, minPrice, maxPrice);
+        
+        SearchQuery searchQuery = new SearchQuery(query, category, minPrice, maxPrice);
+        SearchHits hits = index.read(target -> target.search(searchQuery, page * size, size));
+        
+        // DTO страницы одним запросом, порядок - по релевантности из индекса
+        List<ProductDto> content = List.of();
+        if (!hits.productIds().isEmpty()) {
+            Map<Long, ProductDto> found = productRepository.findDtosByIdIn(hits.productIds()).stream()
+                    .collect(Collectors.toMap(ProductDto::getId, Function.identity()));
+            content = hits.productIds().stream()
+                    .map(found::get)
+                    .filter(Objects::nonNull)
+                    .toList();
+        }
+        
+        int totalPages = (hits.total() + size - 1) / size;
+        return PageResponse.<ProductDto>builder()
+                .content(content)
+                .pageNo(page)
+                .pageSize(size)
+                .totalElements(hits.total())
+                .totalPages(totalPages)
+                .last(page >= totalPages - 1)
+                .build();
+    }
+    
+    private static void apply(InvertedIndex target, ProductsChangedEvent event) {
+        for (ProductsChangedEvent.Change change : event.changes()) {
+            if (change.before() != null && change.before().id() != null) {
+                target.remove(change.before().id());
+            }
+            ProductSnapshot after = change.after();
+            if (after != null && after.id() != null) {
+                target.add(after.id(), after.title(), after.description(), after.category(), after.price());
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -1,132 +1,147 @@
 package com.example.smartixtest.service.impl;
 
+import com.example.smartixtest.config.CacheConfig;
+import com.example.smartixtest.datasource.ReplicaRoutingDataSource;
+import com.example.smartixtest.dto.CategoryStatsDto;
+import com.example.smartixtest.dto.CursorPageResponse;
+import com.example.smartixtest.dto.ImportSummaryDto;
 import com.example.smartixtest.dto.PageResponse;
 import com.example.smartixtest.dto.ProductDto;
+import com.example.smartixtest.event.ProductSnapshot;
+import com.example.smartixtest.event.ProductsChangedEvent;
+import com.example.smartixtest.exception.BadRequestException;
+import com.example.smartixtest.exception.ConflictException;
 import com.example.smartixtest.exception.ResourceNotFoundException;
 import com.example.smartixtest.mapper.ProductMapper;
-import com.example.smartixtest.model.Category;
 import com.example.smartixtest.model.Product;
-import com.example.smartixtest.repository.CategoryRepository;
 import com.example.smartixtest.repository.ProductRepository;
+import com.example.smartixtest.service.CategoryIndex;
+import com.example.smartixtest.service.CategoryResolver;
+import com.example.smartixtest.service.ImportProgress;
 import com.example.smartixtest.service.ProductService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.http.HttpMethod;
-import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.web.client.RestTemplate;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.math.BigDecimal;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
+// Время каждого метода - таймер product.service с тегами class и method
 @Service
 @RequiredArgsConstructor
 @Slf4j
+@Timed(value = "product.service", histogram = true)
 public class ProductServiceImpl implements ProductService {
 
     private final ProductRepository productRepository;
-    private final CategoryRepository categoryRepository;
+    private final CategoryResolver categoryResolver;
     private final ProductMapper productMapper;
-    private final RestTemplate restTemplate;
+    private final ObjectMapper objectMapper;
+    private final ProductImportEngine productImportEngine;
+    private final CategoryIndex categoryIndex;
+    private final ApplicationEventPublisher eventPublisher;
     
-    @Value("${external.api.url:https://fakestoreapi.com/products}")
-    private String externalApiUrl;
+    // Список источников фида (через запятую), по умолчанию единственный external.api.url
+    @Value("${external.api.urls:${external.api.url:https://fakestoreapi.com/products}}")
+    private List<String> externalApiUrls;
     
     @Override
-    @Transactional
-    public List<ProductDto> importProductsFromExternalApi() {
-        log.info("Импортируем товары из внешнего API: {}", externalApiUrl);
-        
-        ResponseEntity<List<ProductDto>> response = restTemplate.exchange(
-                externalApiUrl,
-                HttpMethod.GET,
-                null,
-                new ParameterizedTypeReference<List<ProductDto>>() {}
-        );
-        
-        List<ProductDto> productDtos = response.getBody();
-        if (productDtos == null || productDtos.isEmpty()) {
-            log.warn("Внешний API вернул пустой список товаров");
-            return List.of();
-        }
-        
-        List<Product> products = productDtos.stream()
-                .map(dto -> {
-                    Product product = productMapper.toEntity(dto);
-                    if (product.getCategory() != null) {
-                        // Ищем категорию в БД или создаем новую
-                        Category category = categoryRepository
-                                .findByName(product.getCategory().getName())
-                                .orElse(product.getCategory());
-                        product.setCategory(category);
-                    }
-                    return product;
-                })
-                .collect(Collectors.toList());
+    public ImportSummaryDto importProductsFromExternalApi(ImportProgress progress) {
+        log.info("Импортируем товары из внешних API: {}", externalApiUrls);
         
-        products = productRepository.saveAll(products);
-        log.info("Импортировано {} товаров из внешнего API", products.size());
+        ImportSummaryDto summary = productImportEngine.importFrom(externalApiUrls, progress);
+        if (summary.getReceived() == 0) {
+            log.warn("Внешние API вернули пустой список товаров");
+        }
         
-        return products.stream()
-                .map(productMapper::toDto)
-                .collect(Collectors.toList());
+        log.info("Импортировано {} товаров из {} источников за {} мс ({} пачек, дубликатов: {}, ошибок: {})",
+                summary.getImported(), externalApiUrls.size(), summary.getDurationMs(),
+                summary.getChunks(), summary.getDuplicates(), summary.getFailedSources());
+        return summary;
     }
     
     @Override
     @Transactional
     public ProductDto createProduct(ProductDto productDto) {
-        log.info("Создаем новый товар: {}", productDto.getTitle());
+        log.debug("Создаем новый товар: {}", productDto.getTitle());
         
         Product product = productMapper.toEntity(productDto);
+        // id выдаёт последовательность, id и версия из запроса игнорируются
+        product.setId(null);
         
         // Обрабатываем категорию
         if (product.getCategory() != null) {
-            String categoryName = product.getCategory().getName();
-            Category category = categoryRepository
-                    .findByName(categoryName)
-                    .orElse(new Category(null, categoryName));
-            product.setCategory(category);
+            product.setCategory(categoryResolver.resolve(product.getCategory().getName()));
         }
         
         Product savedProduct = productRepository.save(product);
+        eventPublisher.publishEvent(ProductsChangedEvent.of(null, ProductSnapshot.of(savedProduct)));
         return productMapper.toDto(savedProduct);
     }
     
     @Override
+    @Cacheable(cacheNames = CacheConfig.PRODUCTS_CACHE, key = "#id")
+    @Transactional(readOnly = true)
     public ProductDto getProductById(Long id) {
-        log.info("Получаем товар по ID: {}", id);
+        log.debug("Получаем товар по ID: {}", id);
         
-        Product product = productRepository.findById(id)
+        // Результат кэшируется на весь TTL: отстающая реплика вернула бы товар до только что
+        // сброшенного изменения
+        return ReplicaRoutingDataSource.onPrimary(() -> productRepository.findDtoById(id))
                 .orElseThrow(() -> new ResourceNotFoundException("Товар", "id", id));
-        
-        return productMapper.toDto(product);
     }
     
+    // Версия сравнивается с If-None-Match: старая версия с реплики дала бы ложный 304
     @Override
+    @Transactional(readOnly = true)
+    public long getProductVersion(Long id) {
+        return ReplicaRoutingDataSource.onPrimary(() -> productRepository.findVersionById(id))
+                .orElseThrow(() -> new ResourceNotFoundException("Товар", "id", id));
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
     public PageResponse<ProductDto> getAllProducts(int page, int size) {
-        log.info("Получаем список всех товаров, страница: {}, размер: {}", page, size);
+        log.debug("Получаем список всех товаров, страница: {}, размер: {}", page, size);
         
         Pageable pageable = PageRequest.of(page, size);
-        Page<Product> productPage = productRepository.findAll(pageable);
+        Page<ProductDto> productPage = productRepository.findAllDtos(pageable);
         
         return createPageResponse(productPage);
     }
     
     @Override
     @Transactional
+    @CacheEvict(cacheNames = CacheConfig.PRODUCTS_CACHE, key = "#id")
     public ProductDto updateProduct(Long id, ProductDto productDto) {
-        log.info("Обновляем товар с ID: {}", id);
+        log.debug("Обновляем товар с ID: {}", id);
         
         Product product = productRepository.findById(id)
+                .filter(existing -> !existing.isDeleted())
                 .orElseThrow(() -> new ResourceNotFoundException("Товар", "id", id));
+        if (productDto.getVersion() != null && !productDto.getVersion().equals(product.getVersion())) {
+            throw new ConflictException("Товар с ID " + id + " изменён: текущая версия " + product.getVersion()
+                    + ", ожидалась " + productDto.getVersion());
+        }
+        ProductSnapshot before = ProductSnapshot.of(product);
         
         // Обновляем поля товара
         productMapper.updateEntityFromDto(productDto, product);
@@ -139,53 +154,119 @@ public class ProductServiceImpl implements ProductService {
             if (product.getCategory() == null || 
                     !product.getCategory().getName().equals(newCategoryName)) {
                 
-                Category category = categoryRepository
-                        .findByName(newCategoryName)
-                        .orElse(new Category(null, newCategoryName));
-                
-                product.setCategory(category);
+                product.setCategory(categoryResolver.resolve(newCategoryName));
             }
         }
         
-        Product updatedProduct = productRepository.save(product);
+        // flush сразу, чтобы в ответ попала уже увеличенная версия.
+        // Параллельное обновление того же товара завершится ObjectOptimisticLockingFailureException
+        Product updatedProduct = productRepository.saveAndFlush(product);
+        eventPublisher.publishEvent(ProductsChangedEvent.of(before, ProductSnapshot.of(updatedProduct)));
         return productMapper.toDto(updatedProduct);
     }
     
     @Override
     @Transactional
+    @CacheEvict(cacheNames = CacheConfig.PRODUCTS_CACHE, key = "#id")
     public void deleteProduct(Long id) {
-        log.info("Удаляем товар с ID: {}", id);
+        log.debug("Удаляем товар с ID: {}", id);
         
         Product product = productRepository.findById(id)
+                .filter(existing -> !existing.isDeleted())
                 .orElseThrow(() -> new ResourceNotFoundException("Товар", "id", id));
         
         productRepository.delete(product);
+        eventPublisher.publishEvent(ProductsChangedEvent.of(ProductSnapshot.of(product), null));
     }
     
     @Override
+    @Transactional(readOnly = true)
     public PageResponse<ProductDto> getProductsByPriceRange(BigDecimal minPrice, BigDecimal maxPrice, int page, int size) {
-        log.info("Получаем товары в ценовом диапазоне от {} до {}, страница: {}, размер: {}", 
+        log.debug("Получаем товары в ценовом диапазоне от {} до {}, страница: {}, размер: {}",
                 minPrice, maxPrice, page, size);
         
         Pageable pageable = PageRequest.of(page, size);
-        Page<Product> productPage = productRepository.findByPriceBetween(minPrice, maxPrice, pageable);
+        Page<ProductDto> productPage = productRepository.findDtosByPriceBetween(minPrice, maxPrice, pageable);
         
         return createPageResponse(productPage);
     }
     
     @Override
-    public List<String> getAllUniqueCategories() {
-        log.info("Получаем список уникальных категорий");
-        return productRepository.findAllUniqueCategories();
+    @Transactional(readOnly = true)
+    public CursorPageResponse<ProductDto> getAllProductsByCursor(String cursor, int size, boolean withTotal) {
+        log.debug("Получаем список товаров по курсору, размер: {}", size);
+        
+        ProductCursor after = ProductCursor.decode(cursor, false);
+        Pageable limit = keysetLimit(size);
+        List<ProductDto> products = after == null
+                ? productRepository.findDtoPageStart(limit)
+                : productRepository.findDtoPageAfter(after.id(), limit);
+        
+        Long total = withTotal ? productRepository.countByDeletedFalse() : null;
+        return createCursorPageResponse(products, size, total,
+                last -> ProductCursor.afterId(last.getId()));
     }
     
-    private PageResponse<ProductDto> createPageResponse(Page<Product> productPage) {
-        List<ProductDto> productDtos = productPage.getContent().stream()
-                .map(productMapper::toDto)
-                .collect(Collectors.toList());
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageResponse<ProductDto> getProductsByPriceRangeByCursor(BigDecimal minPrice, BigDecimal maxPrice,
+                                                                          String cursor, int size, boolean withTotal) {
+        log.debug("Получаем товары в ценовом диапазоне от {} до {} по курсору, размер: {}",
+                minPrice, maxPrice, size);
+        
+        ProductCursor after = ProductCursor.decode(cursor, true);
+        Pageable limit = keysetLimit(size);
+        List<ProductDto> products = after == null
+                ? productRepository.findDtoPriceRangeStart(minPrice, maxPrice, limit)
+                : productRepository.findDtoPriceRangeAfter(minPrice, maxPrice, after.price(), after.id(), limit);
+        
+        Long total = withTotal ? productRepository.countByPriceBetweenAndDeletedFalse(minPrice, maxPrice) : null;
+        return createCursorPageResponse(products, size, total,
+                last -> ProductCursor.afterPriceAndId(last.getPrice(), last.getId()));
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public long exportProducts(Long sinceId, OutputStream out) throws IOException {
+        log.debug("Выгружаем каталог товаров начиная с ID > {}", sinceId);
+        
+        // Без flush после каждой записи: строки копятся в буфере генератора
+        ObjectWriter writer = objectMapper.writerFor(ProductDto.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        long exported = 0;
         
+        try (Stream<ProductDto> products = productRepository.streamDtosAfter(sinceId == null ? 0L : sinceId);
+             JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.setRootValueSeparator(null);
+            
+            Iterator<ProductDto> iterator = products.iterator();
+            while (iterator.hasNext()) {
+                writer.writeValue(generator, iterator.next());
+                generator.writeRaw('\n');
+                exported++;
+            }
+        }
+        
+        log.info("Выгружено {} товаров", exported);
+        return exported;
+    }
+    
+    @Override
+    public List<String> getAllUniqueCategories() {
+        log.debug("Получаем список уникальных категорий");
+        return categoryIndex.getCategoryNames();
+    }
+    
+    @Override
+    public List<CategoryStatsDto> getCategoryStats() {
+        log.debug("Получаем статистику по категориям");
+        return categoryIndex.getCategoryStats();
+    }
+    
+    // Видимость пакетная, чтобы сборку ответа можно было замерить JMH-бенчмарком
+    static PageResponse<ProductDto> createPageResponse(Page<ProductDto> productPage) {
         return PageResponse.<ProductDto>builder()
-                .content(productDtos)
+                .content(productPage.getContent())
                 .pageNo(productPage.getNumber())
                 .pageSize(productPage.getSize())
                 .totalElements(productPage.getTotalElements())
@@ -193,4 +274,28 @@ public class ProductServiceImpl implements ProductService {
                 .last(productPage.isLast())
                 .build();
     }
+    
+    // Запрашиваем на одну запись больше, чтобы узнать о наличии следующей страницы без count
+    private Pageable keysetLimit(int size) {
+        if (size < 1) {
+            throw new BadRequestException("Размер страницы должен быть положительным");
+        }
+        return PageRequest.of(0, size + 1);
+    }
+    
+    private CursorPageResponse<ProductDto> createCursorPageResponse(List<ProductDto> products, int size, Long total,
+                                                                    Function<ProductDto, ProductCursor> cursorOf) {
+        boolean hasNext = products.size() > size;
+        List<ProductDto> page = hasNext ? products.subList(0, size) : products;
+        
+        String nextCursor = hasNext ? cursorOf.apply(page.get(page.size() - 1)).encode() : null;
+        
+        return CursorPageResponse.<ProductDto>builder()
+                .content(page)
+                .pageSize(size)
+                .nextCursor(nextCursor)
+                .hasNext(hasNext)
+                .totalElements(total)
+                .build();
+    }
 } 
\ No newline at end of file
@@ -0,0 +1,77 @@
+package com.example.smartixtest.service.impl;
+
+import com.example.smartixtest.dto.CursorPageResponse;
+import com.example.smartixtest.dto.ProductDto;
+import com.example.smartixtest.exception.BadRequestException;
+import com.example.smartixtest.exception.ServiceUnavailableException;
+import com.example.smartixtest.service.ProductService;
+import com.example.smartixtest.service.ProductStreamService;
+import com.example.smartixtest.service.RatingService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.math.BigDecimal;
+import java.util.concurrent.Callable;
+import java.util.concurrent.RejectedExecutionException;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ProductStreamServiceImpl implements ProductStreamService {
+
+    private final ProductService productService;
+    private final RatingService ratingService;
+    private final Scheduler productStreamScheduler;
+    
+    @Value("${products.stream.max-page-size:1000}")
+    private int maxPageSize;
+    
+    @Override
+    public Mono<ProductDto> getProduct(Long id) {
+        return blocking(() -> ratingService.withLiveRating(productService.getProductById(id)));
+    }
+    
+    @Override
+    public Flux<CursorPageResponse<ProductDto>> streamPages(BigDecimal minPrice, BigDecimal maxPrice,
+                                                            String cursor, int pageSize) {
+        if (pageSize < 1 || pageSize > maxPageSize) {
+            throw new BadRequestException("Размер страницы должен быть от 1 до " + maxPageSize);
+        }
+        if ((minPrice == null) != (maxPrice == null)) {
+            throw new BadRequestException("Диапазон цен задаётся параметрами minPrice и maxPrice вместе");
+        }
+        log.debug("Потоковое чтение товаров: диапазон цен {} - {}, курсор {}, страница {}",
+                minPrice, maxPrice, cursor, pageSize);
+        
+        // Каждая страница - отдельный короткий запрос по курсору, соединение между страницами не держится.
+        // expand запрашивает следующую страницу по мере спроса подписчика, впрок - не больше одной
+        return page(minPrice, maxPrice, cursor, pageSize)
+                .expand(page -> page.isHasNext()
+                        ? page(minPrice, maxPrice, page.getNextCursor(), pageSize)
+                        : Mono.empty());
+    }
+    
+    private Mono<CursorPageResponse<ProductDto>> page(BigDecimal minPrice, BigDecimal maxPrice,
+                                                      String cursor, int pageSize) {
+        return blocking(() -> {
+            CursorPageResponse<ProductDto> page = minPrice == null
+                    ? productService.getAllProductsByCursor(cursor, pageSize, false)
+                    : productService.getProductsByPriceRangeByCursor(minPrice, maxPrice, cursor, pageSize, false);
+            page.setContent(ratingService.withLiveRatings(page.getContent()));
+            return page;
+        });
+    }
+    
+    // Блокирующий вызов сервиса на ограниченном пуле; если очередь пула заполнена - 503
+    private <T> Mono<T> blocking(Callable<T> call) {
+        return Mono.fromCallable(call)
+                .subscribeOn(productStreamScheduler)
+                .onErrorMap(RejectedExecutionException.class,
+                        e -> new ServiceUnavailableException("Слишком много потоковых запросов, повторите запрос позже"));
+    }
+}
\ No newline at end of file
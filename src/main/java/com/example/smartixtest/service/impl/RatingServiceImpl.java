@@ -0,0 +1,318 @@
+package com.example.smartixtest.service.impl;
+
+import com.example.smartixtest.config.CacheConfig;
+import com.example.smartixtest.dto.ProductDto;
+import com.example.smartixtest.dto.RatingDto;
+import com.example.smartixtest.event.ProductSnapshot;
+import com.example.smartixtest.event.ProductsChangedEvent;
+import com.example.smartixtest.exception.ServiceUnavailableException;
+import com.example.smartixtest.model.Product;
+import com.example.smartixtest.model.Rating;
+import com.example.smartixtest.repository.ProductRepository;
+import com.example.smartixtest.service.RatingService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Write-behind для оценок: события складываются в памяти в агрегаты по товару и пишутся в БД
+// пачками раз в ratings.flush-interval. При аварийной остановке теряются оценки не больше чем
+// за один интервал (плюс неудачные попытки записи), при штатной - остаток пишется при закрытии контекста
+@Service
+@Slf4j
+public class RatingServiceImpl implements RatingService {
+
+    // Оценки товара упакованы в один long: старшие 24 бита - число оценок, младшие 40 - сумма в сотых.
+    // Сложение упакованных значений складывает оба поля, поэтому приём оценки - одно сложение в compute
+    private static final int SUM_BITS = 40;
+    private static final long SUM_MASK = (1L << SUM_BITS) - 1;
+    private static final long ONE_RATING = 1L << SUM_BITS;
+    // Предел незаписанных оценок товара, при котором поля не переполняются: счётчику хватает 24 бит,
+    // сумме при оценке не выше 5 (500 сотых) - 40 бит
+    private static final int MAX_UNFLUSHED_RATINGS = (1 << (Long.SIZE - SUM_BITS)) - 1;
+    
+    // Версия товара ещё не прочитана при записи
+    private static final long UNKNOWN_VERSION = -1;
+    
+    // Товаров в одной транзакции записи
+    private static final int FLUSH_CHUNK_SIZE = 500;
+    
+    private final ProductRepository productRepository;
+    private final CacheManager cacheManager;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter acceptedRatings;
+    private final Counter droppedRatings;
+    private final Timer flushTimer;
+    
+    // Незаписанные оценки по товару. Принятые и записываемые текущим flush лежат в одной записи
+    // и переходят между частями атомарно (compute), поэтому чтение не теряет и не удваивает оценки
+    private final ConcurrentHashMap<Long, Unflushed> unflushed = new ConcurrentHashMap<>();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private volatile boolean closed;
+    
+    // Ограничение памяти: новые товары сверх лимита получают 503 до следующей записи
+    @Value("${ratings.max-pending-products:100000}")
+    private int maxPendingProducts;
+    
+    // Принятые и возвращённые неудачной записью оценки товара вместе не превышают предел упаковки:
+    // сверх него товар получает 503, пока запись не пройдёт
+    private int maxUnflushedRatings = MAX_UNFLUSHED_RATINGS;
+    
+    public RatingServiceImpl(ProductRepository productRepository, CacheManager cacheManager,
+                             ApplicationEventPublisher eventPublisher,
+                             PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) {
+        this.productRepository = productRepository;
+        this.cacheManager = cacheManager;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.acceptedRatings = Counter.builder("ratings.events")
+                .description("Принятые оценки покупателей")
+                .register(meterRegistry);
+        this.droppedRatings = Counter.builder("ratings.dropped")
+                .description("Оценки удалённых и несуществующих товаров, отброшенные при записи")
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("ratings.flush")
+                .description("Запись накопленных оценок в БД")
+                .register(meterRegistry);
+        Gauge.builder("ratings.pending.products", unflushed, Map::size)
+                .description("Товары с незаписанными оценками")
+                .register(meterRegistry);
+    }
+    
+    @Override
+    public void addRating(Long productId, double rate) {
+        if (closed) {
+            throw new ServiceUnavailableException("Приём оценок остановлен: приложение завершает работу");
+        }
+        if (unflushed.size() >= maxPendingProducts && !unflushed.containsKey(productId)) {
+            throw new ServiceUnavailableException("Слишком много незаписанных оценок, повторите запрос позже");
+        }
+        // Существование товара проверяется при записи, чтобы приём оценки не ходил в БД
+        long rating = ONE_RATING + Math.round(rate * 100);
+        unflushed.compute(productId, (id, current) -> {
+            if (current == null) {
+                return new Unflushed(rating, 0, UNKNOWN_VERSION);
+            }
+            if (current.count() >= maxUnflushedRatings) {
+                throw new ServiceUnavailableException("Слишком много незаписанных оценок товара " + id
+                        + ", повторите запрос позже");
+            }
+            return current.accept(rating);
+        });
+        acceptedRatings.increment();
+    }
+    
+    @Override
+    public ProductDto withLiveRating(ProductDto product) {
+        if (product == null || product.getId() == null) {
+            return product;
+        }
+        long packed = unflushed(product.getId(), product.getVersion() == null ? 0 : product.getVersion());
+        if (packed == 0) {
+            return product;
+        }
+        RatingDto rating = product.getRating();
+        Rating merged = merge(rating == null ? null : new Rating(rating.getRate(), rating.getCount()), packed);
+        // Копия: исходный DTO может лежать в кэше товаров
+        return ProductDto.builder()
+                .id(product.getId())
+                .title(product.getTitle())
+                .price(product.getPrice())
+                .description(product.getDescription())
+                .category(product.getCategory())
+                .image(product.getImage())
+                .rating(new RatingDto(merged.getRate(), merged.getCount()))
+                .version(product.getVersion())
+                .build();
+    }
+    
+    @Override
+    public List<ProductDto> withLiveRatings(List<ProductDto> products) {
+        if (products == null || unflushed.isEmpty()) {
+            return products;
+        }
+        List<ProductDto> result = new ArrayList<>(products.size());
+        for (ProductDto product : products) {
+            result.add(withLiveRating(product));
+        }
+        return result;
+    }
+    
+    @Override
+    public long pendingCount(Long productId, long version) {
+        return unflushed(productId, version) >>> SUM_BITS;
+    }
+    
+    // Фоновая запись; между окончанием одной и началом следующей - ratings.flush-interval
+    @Scheduled(fixedDelayString = "${ratings.flush-interval:PT1S}")
+    public void scheduledFlush() {
+        flush();
+    }
+    
+    @Override
+    public int flush() {
+        flushLock.lock();
+        try {
+            if (unflushed.isEmpty()) {
+                return 0;
+            }
+            return flushTimer.record(this::flushPending);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+    
+    // Остаток пишется после graceful shutdown веб-сервера, когда новых оценок уже нет
+    @PreDestroy
+    public void shutdown() {
+        closed = true;
+        int updated = flush();
+        if (!unflushed.isEmpty()) {
+            log.error("При остановке не записаны оценки {} товаров", unflushed.size());
+        } else if (updated > 0) {
+            log.info("При остановке записаны оценки {} товаров", updated);
+        }
+    }
+    
+    private int flushPending() {
+        // Принятые оценки переходят в записываемые одним compute: пришедшие после попадут в следующую запись
+        List<Long> ids = new ArrayList<>(unflushed.size());
+        for (Long id : unflushed.keySet()) {
+            Unflushed started = unflushed.computeIfPresent(id, (key, current) -> current.startFlush());
+            if (started != null && started.inFlight() != 0) {
+                ids.add(id);
+            }
+        }
+        
+        int updated = 0;
+        for (int from = 0; from < ids.size(); from += FLUSH_CHUNK_SIZE) {
+            List<Long> chunk = ids.subList(from, Math.min(from + FLUSH_CHUNK_SIZE, ids.size()));
+            List<Long> written;
+            try {
+                written = transactionTemplate.execute(status -> write(chunk));
+            } catch (RuntimeException e) {
+                // Оценки возвращаются к принятым и будут записаны при следующей записи
+                log.warn("Не удалось записать оценки {} товаров, повтор при следующей записи: {}",
+                        chunk.size(), e.getMessage());
+                chunk.forEach(id -> unflushed.computeIfPresent(id, (key, current) -> current.failFlush()));
+                continue;
+            }
+            
+            // Кэш сбрасывается после коммита, как при импорте
+            Cache productCache = cacheManager.getCache(CacheConfig.PRODUCTS_CACHE);
+            if (productCache != null) {
+                written.forEach(productCache::evict);
+            }
+            updated += written.size();
+            
+            Set<Long> writtenIds = new HashSet<>(written);
+            for (Long id : chunk) {
+                Unflushed flushed = unflushed.get(id);
+                if (!writtenIds.contains(id) && flushed != null) {
+                    long count = flushed.inFlight() >>> SUM_BITS;
+                    log.debug("Отброшено оценок товара {}: {} (товар не найден или удалён)", id, count);
+                    droppedRatings.increment(count);
+                }
+                // Запись без принятых после начала flush оценок удаляется
+                unflushed.computeIfPresent(id, (key, current) -> current.completeFlush());
+            }
+        }
+        log.debug("Записаны оценки {} товаров", updated);
+        return updated;
+    }
+    
+    // Одна транзакция на пачку товаров: UPDATE с проверкой версии уходят JDBC-пачками при flush
+    private List<Long> write(List<Long> ids) {
+        List<Product> products = productRepository.findAllById(ids);
+        List<Long> written = new ArrayList<>(products.size());
+        List<ProductsChangedEvent.Change> changes = new ArrayList<>(products.size());
+        for (Product product : products) {
+            Unflushed flushing = unflushed.get(product.getId());
+            if (flushing == null || flushing.inFlight() == 0 || product.isDeleted()) {
+                continue;
+            }
+            // После коммита версия вырастет, и чтения новой версии перестанут добавлять эти оценки
+            long version = product.getVersion();
+            unflushed.computeIfPresent(product.getId(), (id, current) -> current.writing(version));
+            ProductSnapshot before = ProductSnapshot.of(product);
+            product.setRating(merge(product.getRating(), flushing.inFlight()));
+            changes.add(new ProductsChangedEvent.Change(before, ProductSnapshot.of(product)));
+            written.add(product.getId());
+        }
+        productRepository.flush();
+        if (!changes.isEmpty()) {
+            eventPublisher.publishEvent(new ProductsChangedEvent(changes));
+        }
+        return written;
+    }
+    
+    // Одно чтение записи даёт согласованную пару частей
+    private long unflushed(Long productId, long version) {
+        Unflushed current = unflushed.get(productId);
+        if (current == null) {
+            return 0;
+        }
+        boolean inFlightVisible = current.version() == UNKNOWN_VERSION || current.version() == version;
+        return current.pending() + (inFlightVisible ? current.inFlight() : 0);
+    }
+    
+    // Среднее с учётом новых оценок, округлённое до сотых
+    private static Rating merge(Rating current, long packed) {
+        long added = packed >>> SUM_BITS;
+        double rate = current == null || current.getRate() == null ? 0 : current.getRate();
+        long count = current == null || current.getCount() == null ? 0 : current.getCount();
+        long total = count + added;
+        double merged = (rate * count + (packed & SUM_MASK) / 100.0) / total;
+        return new Rating(Math.round(merged * 100) / 100.0, (int) Math.min(total, Integer.MAX_VALUE));
+    }
+    
+    // pending - принятые оценки, inFlight - записываемые текущим flush, version - версия товара,
+    // которую этот flush обновляет (для чтений старой версии inFlight ещё не в БД)
+    private record Unflushed(long pending, long inFlight, long version) {
+        
+        // Оценки обеих частей: после неудачной записи они складываются в pending
+        long count() {
+            return (pending >>> SUM_BITS) + (inFlight >>> SUM_BITS);
+        }
+        
+        Unflushed accept(long rating) {
+            return new Unflushed(pending + rating, inFlight, version);
+        }
+        
+        Unflushed startFlush() {
+            return new Unflushed(0, inFlight + pending, UNKNOWN_VERSION);
+        }
+        
+        Unflushed writing(long productVersion) {
+            return new Unflushed(pending, inFlight, productVersion);
+        }
+        
+        Unflushed failFlush() {
+            return new Unflushed(pending + inFlight, 0, UNKNOWN_VERSION);
+        }
+        
+        // null удаляет запись из карты
+        Unflushed completeFlush() {
+            return pending == 0 ? null : new Unflushed(pending, 0, UNKNOWN_VERSION);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,13 @@
+-- id товаров и категорий переходят с bigserial на отдельные последовательности с шагом 50:
+-- Hibernate выдаёт id блоками (pooled) и может батчить вставки.
+-- Последовательность ставится на блок выше максимального id, чтобы новые id не пересеклись со старыми
+
+ALTER TABLE products ALTER COLUMN id DROP DEFAULT;
+DROP SEQUENCE products_id_seq;
+CREATE SEQUENCE products_seq START WITH 1 INCREMENT BY 50;
+SELECT setval('products_seq', (SELECT COALESCE(MAX(id), 0) FROM products) + 50);
+
+ALTER TABLE categories ALTER COLUMN id DROP DEFAULT;
+DROP SEQUENCE categories_id_seq;
+CREATE SEQUENCE categories_seq START WITH 1 INCREMENT BY 50;
+SELECT setval('categories_seq', (SELECT COALESCE(MAX(id), 0) FROM categories) + 50);
\ No newline at end of file
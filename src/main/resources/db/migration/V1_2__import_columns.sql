@@ -0,0 +1,9 @@
+-- Колонки инкрементального импорта: ключ товара во внешнем фиде, хэш содержимого
+-- и мягкое удаление. У товаров, созданных до миграции, ключа нет: старый импорт
+-- не сохранял id поставщика, такие товары импорт не обновляет и не удаляет
+
+ALTER TABLE products ADD COLUMN external_id VARCHAR(255);
+ALTER TABLE products ADD COLUMN content_hash BIGINT;
+ALTER TABLE products ADD COLUMN deleted BOOLEAN DEFAULT FALSE NOT NULL;
+
+ALTER TABLE products ADD CONSTRAINT products_external_id_key UNIQUE (external_id);
\ No newline at end of file
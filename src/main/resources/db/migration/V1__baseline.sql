@@ -0,0 +1,32 @@
+-- Схема, которую до перехода на миграции создавал ddl-auto=update (id - bigserial,
+-- имена ограничений сгенерированы Hibernate). На существующей БД эта версия не выполняется:
+-- spring.flyway.baseline-on-migrate помечает её как применённую
+
+CREATE TABLE categories (
+    id   BIGSERIAL    NOT NULL,
+    name VARCHAR(255) NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE products (
+    id          BIGSERIAL     NOT NULL,
+    description VARCHAR(1000),
+    image       VARCHAR(255),
+    price       NUMERIC(38, 2),
+    title       VARCHAR(255)  NOT NULL,
+    category_id BIGINT,
+    rating_id   BIGINT,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE ratings (
+    id    BIGSERIAL NOT NULL,
+    count INTEGER,
+    rate  FLOAT(53),
+    PRIMARY KEY (id)
+);
+
+ALTER TABLE categories ADD CONSTRAINT UK_t8o6pivur7nn124jehx7cygw5 UNIQUE (name);
+ALTER TABLE products ADD CONSTRAINT UK_9jiifrq0d9x3fhiq975oebxsp UNIQUE (rating_id);
+ALTER TABLE products ADD CONSTRAINT FKog2rp4qthbtt2lfyhfo32lsw9 FOREIGN KEY (category_id) REFERENCES categories;
+ALTER TABLE products ADD CONSTRAINT FKlk3ijthl9uga3larfqiui1sfn FOREIGN KEY (rating_id) REFERENCES ratings;
\ No newline at end of file
@@ -0,0 +1,14 @@
+-- Рейтинг переезжает в колонки products: минус таблица, join и строка на каждый товар
+
+ALTER TABLE products ADD COLUMN rating_rate FLOAT(53);
+ALTER TABLE products ADD COLUMN rating_count INTEGER;
+
+UPDATE products p
+SET rating_rate  = r.rate,
+    rating_count = r.count
+FROM ratings r
+WHERE r.id = p.rating_id;
+
+ALTER TABLE products DROP COLUMN rating_id;
+-- Вместе с таблицей удаляется и её последовательность ratings_id_seq
+DROP TABLE ratings;
\ No newline at end of file
@@ -0,0 +1,10 @@
+-- Индексы под горячие запросы ProductRepository, планы проверяет ProductQueryPlanTest
+
+-- Фильтр по диапазону цен и keyset-пагинация по (price, id)
+CREATE INDEX products_price_id_idx ON products (price, id);
+
+-- Список категорий и join товаров с категориями
+CREATE INDEX products_category_id_idx ON products (category_id);
+
+-- Число активных товаров для страниц списка: index-only scan вместо чтения всей таблицы
+CREATE INDEX products_active_id_idx ON products (id) WHERE NOT deleted;
\ No newline at end of file
@@ -0,0 +1,3 @@
+-- Версия товара для оптимистической блокировки и ETag, у существующих товаров - 0
+
+ALTER TABLE products ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
\ No newline at end of file
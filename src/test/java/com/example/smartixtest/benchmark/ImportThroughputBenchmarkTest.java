@@ -0,0 +1,107 @@
+package com.example.smartixtest.benchmark;
+
+import com.example.smartixtest.dto.ProductDto;
+import com.example.smartixtest.dto.RatingDto;
+import com.example.smartixtest.repository.ProductRepository;
+import com.example.smartixtest.service.impl.ProductImportWriter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Замер скорости записи импорта (строк/сек). По умолчанию H2, для PostgreSQL:
+// mvn test -Dbenchmark=true -Dtest=ImportThroughputBenchmarkTest \
+//     -Dspring.datasource.url=jdbc:postgresql://localhost:5432/smartix?reWriteBatchedInserts=true \
+//     -Dspring.datasource.username=postgres -Dspring.datasource.password=postgres \
+//     -Dspring.jpa.properties.hibernate.dialect=org.hibernate.dialect.PostgreSQLDialect
+// Сравнение "до/после": прогон с -Dbenchmark.batch-size=1 и с размером батча по умолчанию.
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.jdbc.batch_size=${benchmark.batch-size:50}")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class ImportThroughputBenchmarkTest {
+
+    private static final int PRODUCTS = Integer.getInteger("benchmark.products", 50_000);
+    private static final int CHUNK_SIZE = Integer.getInteger("benchmark.chunk-size", 500);
+    private static final int CATEGORIES = 20;
+    private static final String SOURCE = "benchmark";
+    
+    @Autowired
+    private ProductImportWriter productImportWriter;
+    
+    @Autowired
+    private ProductRepository productRepository;
+    
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size}")
+    private int batchSize;
+    
+    @Test
+    void importThroughput() {
+        // Прогрев: первая пачка создаёт категории и прогревает пулы. Источник отдельный:
+        // товары без id ключуются содержимым, и повтор той же пачки не был бы записан
+        productImportWriter.writeChunk(SOURCE + "-warmup", chunk(0, CHUNK_SIZE));
+        long before = productRepository.count();
+        
+        long startedAt = System.nanoTime();
+        for (int offset = 0; offset < PRODUCTS; offset += CHUNK_SIZE) {
+            productImportWriter.writeChunk(SOURCE, chunk(offset, Math.min(CHUNK_SIZE, PRODUCTS - offset)));
+        }
+        double seconds = (System.nanoTime() - startedAt) / 1_000_000_000.0;
+        
+        System.out.printf("import: %d rows, chunk=%d, jdbc.batch_size=%d, %.2f s, %.0f rows/sec%n",
+                PRODUCTS, CHUNK_SIZE, batchSize, seconds, PRODUCTS / seconds);
+        assertEquals(before + PRODUCTS, productRepository.count());
+    }
+    
+    // Повторная синхронизация неизменившегося фида не должна ничего писать
+    @Test
+    void resyncOfUnchangedFeed() {
+        String source = "resync";
+        for (int offset = 0; offset < PRODUCTS; offset += CHUNK_SIZE) {
+            productImportWriter.writeChunk(source, withIds(chunk(offset, Math.min(CHUNK_SIZE, PRODUCTS - offset)), offset));
+        }
+        
+        long written = 0;
+        long unchanged = 0;
+        long startedAt = System.nanoTime();
+        for (int offset = 0; offset < PRODUCTS; offset += CHUNK_SIZE) {
+            ProductImportWriter.ChunkResult result = productImportWriter.writeChunk(
+                    source, withIds(chunk(offset, Math.min(CHUNK_SIZE, PRODUCTS - offset)), offset));
+            written += result.written();
+            unchanged += result.unchanged();
+        }
+        double seconds = (System.nanoTime() - startedAt) / 1_000_000_000.0;
+        
+        System.out.printf("resync: %d rows, written=%d, unchanged=%d, %.2f s, %.0f rows/sec%n",
+                PRODUCTS, written, unchanged, seconds, PRODUCTS / seconds);
+        assertEquals(0, written);
+        assertEquals(PRODUCTS, unchanged);
+    }
+    
+    private List<ProductDto> chunk(int offset, int size) {
+        List<ProductDto> chunk = new ArrayList<>(size);
+        for (int i = offset; i < offset + size; i++) {
+            chunk.add(ProductDto.builder()
+                    .title("Product " + i)
+                    .price(BigDecimal.valueOf(1 + i % 1000, 2))
+                    .description("Synthetic product " + i)
+                    .category("category-" + i % CATEGORIES)
+                    .image("https://example.com/" + i + ".jpg")
+                    .rating(new RatingDto(1 + (i % 40) / 10.0, i % 500))
+                    .build());
+        }
+        return chunk;
+    }
+    
+    private List<ProductDto> withIds(List<ProductDto> chunk, int offset) {
+        for (int i = 0; i < chunk.size(); i++) {
+            chunk.get(i).setId((long) offset + i + 1);
+        }
+        return chunk;
+    }
+}
\ No newline at end of file
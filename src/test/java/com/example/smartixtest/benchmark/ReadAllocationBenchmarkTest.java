@@ -0,0 +1,70 @@
+package com.example.smartixtest.benchmark;
+
+import com.example.smartixtest.dto.ProductDto;
+import com.example.smartixtest.dto.RatingDto;
+import com.example.smartixtest.service.ProductService;
+import com.example.smartixtest.service.impl.ProductImportWriter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+// Аллокации на один запрос страницы через DTO-проекцию в read-only транзакции. Запуск:
+// mvn test -Dbenchmark=true -Dtest=ReadAllocationBenchmarkTest
+@SpringBootTest
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class ReadAllocationBenchmarkTest {
+
+    private static final int PRODUCTS = 2_000;
+    private static final int PAGE_SIZE = 100;
+    private static final int WARMUP = 200;
+    private static final int ITERATIONS = 1_000;
+    private static final String SOURCE = "benchmark";
+    
+    @Autowired
+    private ProductImportWriter productImportWriter;
+    
+    @Autowired
+    private ProductService productService;
+    
+    @Test
+    void allocationPerPage() {
+        seed();
+        
+        Runnable projectionPath = () -> productService.getAllProducts(3, PAGE_SIZE);
+        System.out.printf("dto projection: %,d bytes/request%n", allocatedPerCall(projectionPath));
+    }
+    
+    private long allocatedPerCall(Runnable request) {
+        for (int i = 0; i < WARMUP; i++) {
+            request.run();
+        }
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long before = threads.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < ITERATIONS; i++) {
+            request.run();
+        }
+        return (threads.getCurrentThreadAllocatedBytes() - before) / ITERATIONS;
+    }
+    
+    private void seed() {
+        List<ProductDto> chunk = new ArrayList<>(PRODUCTS);
+        for (int i = 0; i < PRODUCTS; i++) {
+            chunk.add(ProductDto.builder()
+                    .title("Product " + i)
+                    .price(BigDecimal.valueOf(100 + i, 2))
+                    .description("Synthetic product description " + i)
+                    .category("category-" + i % 10)
+                    .image("https://example.com/" + i + ".jpg")
+                    .rating(new RatingDto(4.5, i))
+                    .build());
+        }
+        productImportWriter.writeChunk(SOURCE, chunk);
+    }
+}
\ No newline at end of file
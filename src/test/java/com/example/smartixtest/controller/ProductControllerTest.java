@@ -0,0 +1,45 @@
+package com.example.smartixtest.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class ProductControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    
+    // page + 1 и page * size не должны переполняться в int и уходить в индекс отрицательным смещением
+    @Test
+    void searchRejectsPageBeyondResultWindow() throws Exception {
+        mockMvc.perform(get("/api/products/search")
+                        .param("query", "ring")
+                        .param("page", String.valueOf(Integer.MAX_VALUE))
+                        .param("size", "2"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/products/search")
+                        .param("query", "ring")
+                        .param("page", "4999")
+                        .param("size", "2"))
+                .andExpect(status().isOk());
+    }
+    
+    @Test
+    void facetsRejectPageBeyondResultWindow() throws Exception {
+        mockMvc.perform(get("/api/products/facets")
+                        .param("page", String.valueOf(Integer.MAX_VALUE))
+                        .param("size", "2"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/products/facets")
+                        .param("page", "4999")
+                        .param("size", "2"))
+                .andExpect(status().isOk());
+    }
+}
\ No newline at end of file
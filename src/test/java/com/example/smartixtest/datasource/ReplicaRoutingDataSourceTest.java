@@ -0,0 +1,161 @@
+package com.example.smartixtest.datasource;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Маршрутизация на отдельных базах H2 в памяти: primary и две реплики, каждая знает своё имя
+class ReplicaRoutingDataSourceTest {
+
+    private EmbeddedDatabase primary;
+    private EmbeddedDatabase firstReplica;
+    private EmbeddedDatabase secondReplica;
+    private ReplicaLagMonitor monitor;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate readWrite;
+    private TransactionTemplate readOnly;
+    
+    @BeforeEach
+    void setUp() {
+        primary = database("primary");
+        firstReplica = database("replica-0");
+        secondReplica = database("replica-1");
+        
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        replicas.put("replica-0", firstReplica);
+        replicas.put("replica-1", secondReplica);
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(primary, replicas);
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routing);
+        
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        readWrite = new TransactionTemplate(transactionManager);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        monitor = new ReplicaLagMonitor(routing, "SELECT seconds FROM replication_lag", Duration.ofSeconds(5),
+                new SimpleMeterRegistry());
+    }
+    
+    @AfterEach
+    void tearDown() {
+        primary.shutdown();
+        firstReplica.shutdown();
+        secondReplica.shutdown();
+    }
+    
+    @Test
+    void writesAndReadWriteTransactionsGoToPrimary() {
+        monitor.check();
+        
+        assertEquals("primary", readWrite.execute(status -> node()));
+        assertEquals("primary", node());
+    }
+    
+    @Test
+    void readOnlyTransactionsAreBalancedAcrossReplicas() {
+        monitor.check();
+        
+        Set<String> nodes = new HashSet<>();
+        for (int i = 0; i < 4; i++) {
+            nodes.add(readOnly.execute(status -> node()));
+        }
+        assertEquals(Set.of("replica-0", "replica-1"), nodes);
+    }
+    
+    @Test
+    void primaryReadsInReadOnlyTransactionSkipReplicas() {
+        monitor.check();
+        
+        for (int i = 0; i < 4; i++) {
+            assertEquals("primary", readOnly.execute(status -> ReplicaRoutingDataSource.onPrimary(this::node)));
+        }
+        assertTrue(readOnly.execute(status -> node()).startsWith("replica-"));
+    }
+    
+    @Test
+    void readsGoToPrimaryUntilFirstLagCheck() {
+        assertEquals("primary", readOnly.execute(status -> node()));
+    }
+    
+    @Test
+    void laggingReplicaIsExcludedUntilItCatchesUp() {
+        setLag(firstReplica, 60);
+        monitor.check();
+        
+        for (int i = 0; i < 4; i++) {
+            assertEquals("replica-1", readOnly.execute(status -> node()));
+        }
+        
+        setLag(firstReplica, 0);
+        monitor.check();
+        Set<String> nodes = new HashSet<>();
+        for (int i = 0; i < 4; i++) {
+            nodes.add(readOnly.execute(status -> node()));
+        }
+        assertEquals(Set.of("replica-0", "replica-1"), nodes);
+    }
+    
+    @Test
+    void readsFallBackToPrimaryWhenNoReplicaIsUsable() {
+        setLag(firstReplica, 60);
+        secondReplica.shutdown();
+        monitor.check();
+        
+        assertEquals("primary", readOnly.execute(status -> node()));
+        assertEquals(Status.UP, monitor.health().getStatus());
+        assertEquals(true, monitor.health().getDetails().get("readsFromPrimary"));
+        Map<?, ?> lagging = (Map<?, ?>) monitor.health().getDetails().get("replica-0");
+        assertFalse((Boolean) lagging.get("available"));
+        assertEquals(60.0, lagging.get("lagSeconds"));
+    }
+    
+    @Test
+    void healthReportsAvailableReplicas() {
+        monitor.check();
+        
+        Map<?, ?> replica = (Map<?, ?>) monitor.health().getDetails().get("replica-1");
+        assertTrue((Boolean) replica.get("available"));
+        assertEquals(false, monitor.health().getDetails().get("readsFromPrimary"));
+    }
+    
+    private String node() {
+        return jdbcTemplate.queryForObject("SELECT name FROM node", String.class);
+    }
+    
+    private static EmbeddedDatabase database(String name) {
+        EmbeddedDatabase database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .build();
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(database);
+        jdbcTemplate.execute("CREATE TABLE node (name VARCHAR(20))");
+        jdbcTemplate.update("INSERT INTO node (name) VALUES (?)", name);
+        jdbcTemplate.execute("CREATE TABLE replication_lag (seconds DOUBLE PRECISION)");
+        jdbcTemplate.update("INSERT INTO replication_lag (seconds) VALUES (0)");
+        return database;
+    }
+    
+    private static void setLag(DataSource replica, double seconds) {
+        new JdbcTemplate(replica).update("UPDATE replication_lag SET seconds = ?", seconds);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,132 @@
+package com.example.smartixtest.facet;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Интервалы цен: [0, 10), [10, 25), [25, 50), [50, 100), [100, ...)
+class FacetIndexTest {
+
+    private final FacetIndex index = new FacetIndex(
+            List.of(new BigDecimal("25"), BigDecimal.ZERO, BigDecimal.TEN, new BigDecimal("100"), new BigDecimal("50")));
+    
+    @BeforeEach
+    void setUp() {
+        index.add(1, "jewelery", price("5"), 4.5, 120);
+        index.add(2, "jewelery", price("10"), 3.9, 70);
+        index.add(3, "jewelery", price("60"), 2.0, 5);
+        index.add(4, "electronics", price("24.99"), 4.8, 400);
+        index.add(5, "electronics", price("150"), null, null);
+        index.add(6, "clothing", price("25"), 4.1, 30);
+        index.add(7, null, price("12"), 3.0, 10);
+        index.add(8, "clothing", null, 4.9, 300);
+    }
+    
+    @Test
+    void withoutFiltersCountsEverything() {
+        FacetResult result = search(null, null, null, null, null);
+        
+        assertEquals(8, result.total());
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L), result.productIds());
+        assertEquals(Map.of("jewelery", 3L, "electronics", 2L, "clothing", 2L), result.categoryCounts());
+        // Товар 8 без цены не попадает ни в один интервал
+        assertArrayEquals(new long[] {1, 3, 1, 1, 1}, result.priceBucketCounts());
+    }
+    
+    // Счётчики категорий учитывают фильтр по цене, но не по категориям
+    @Test
+    void categoryCountsIgnoreCategoryFilter() {
+        FacetResult result = search(Set.of("jewelery"), "10", "30", null, null);
+        
+        assertEquals(List.of(2L), result.productIds());
+        assertEquals(1, result.total());
+        assertEquals(Map.of("jewelery", 1L, "electronics", 1L, "clothing", 1L), result.categoryCounts());
+    }
+    
+    // Счётчики интервалов учитывают фильтр по категориям, но не по цене
+    @Test
+    void bucketCountsIgnorePriceFilter() {
+        FacetResult result = search(Set.of("jewelery", "electronics"), "10", "30", null, null);
+        
+        assertEquals(List.of(2L, 4L), result.productIds());
+        assertArrayEquals(new long[] {1, 2, 0, 1, 1}, result.priceBucketCounts());
+        assertEquals(Map.of("jewelery", 1L, "electronics", 1L, "clothing", 1L), result.categoryCounts());
+    }
+    
+    // Товар без цены или рейтинга проходит, пока по этому измерению нет фильтра, и отсекается им
+    @Test
+    void missingValuesFailOnlyTheirOwnFilter() {
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L, 6L, 7L), search(null, "0", null, null, null).productIds());
+        assertEquals(List.of(1L, 4L, 6L, 8L), search(null, null, null, 4.0, null).productIds());
+        assertEquals(List.of(1L, 2L, 4L, 6L, 8L), search(null, null, null, null, 30).productIds());
+        
+        FacetResult byRate = search(null, null, null, 4.0, null);
+        assertEquals(Map.of("jewelery", 1L, "electronics", 1L, "clothing", 2L), byRate.categoryCounts());
+        assertArrayEquals(new long[] {1, 1, 1, 0, 0}, byRate.priceBucketCounts());
+    }
+    
+    @Test
+    void unknownCategoryMatchesNothingButKeepsCounts() {
+        FacetResult result = search(Set.of("toys"), null, null, null, null);
+        
+        assertEquals(0, result.total());
+        assertEquals(List.of(), result.productIds());
+        assertEquals(Map.of("jewelery", 3L, "electronics", 2L, "clothing", 2L), result.categoryCounts());
+        assertArrayEquals(new long[] {0, 0, 0, 0, 0}, result.priceBucketCounts());
+    }
+    
+    // Освободившийся номер документа занимает новый товар, старые значения в нём не остаются
+    @Test
+    void removedSlotsAreReused() {
+        assertTrue(index.remove(3));
+        assertFalse(index.remove(3));
+        assertFalse(index.remove(42));
+        index.add(9, "toys", price("7"), 5.0, 1);
+        
+        assertEquals(8, index.size());
+        assertEquals(8, ReflectionTestUtils.getField(index, "docCount"));
+        FacetResult result = search(null, null, null, null, null);
+        assertEquals(List.of(1L, 2L, 4L, 5L, 6L, 7L, 8L, 9L), result.productIds());
+        assertEquals(Map.of("jewelery", 2L, "electronics", 2L, "clothing", 2L, "toys", 1L), result.categoryCounts());
+        assertArrayEquals(new long[] {2, 3, 1, 0, 1}, result.priceBucketCounts());
+        
+        // Повторное добавление товара переписывает его документ, а не создаёт второй
+        index.add(9, "jewelery", price("70"), 5.0, 1);
+        assertEquals(8, index.size());
+        FacetResult moved = search(Set.of("jewelery"), null, null, null, null);
+        assertEquals(List.of(1L, 2L, 9L), moved.productIds());
+        assertEquals(Map.of("jewelery", 3L, "electronics", 2L, "clothing", 2L), moved.categoryCounts());
+    }
+    
+    @Test
+    void pagesAreOrderedById() {
+        assertEquals(List.of(3L, 4L, 5L), search(null, null, null, null, null, 2, 3).productIds());
+        assertEquals(List.of(8L), search(null, null, null, null, null, 7, 3).productIds());
+        assertEquals(8, search(null, null, null, null, null, 10, 3).total());
+    }
+    
+    private FacetResult search(Set<String> categories, String minPrice, String maxPrice, Double minRate,
+                               Integer minCount) {
+        return search(categories, minPrice, maxPrice, minRate, minCount, 0, 100);
+    }
+    
+    private FacetResult search(Set<String> categories, String minPrice, String maxPrice, Double minRate,
+                               Integer minCount, int offset, int limit) {
+        FacetQuery query = new FacetQuery(categories, price(minPrice), price(maxPrice), minRate, minCount);
+        return index.search(query, offset, limit);
+    }
+    
+    private static BigDecimal price(String value) {
+        return value == null ? null : new BigDecimal(value);
+    }
+}
\ No newline at end of file
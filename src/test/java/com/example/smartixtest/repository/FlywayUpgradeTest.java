@@ -0,0 +1,96 @@
+package com.example.smartixtest.repository;
+
+import io.zonky.test.db.AutoConfigureEmbeddedDatabase;
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.configuration.FluentConfiguration;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.Map;
+
+import static io.zonky.test.db.AutoConfigureEmbeddedDatabase.DatabaseProvider.ZONKY;
+import static io.zonky.test.db.AutoConfigureEmbeddedDatabase.DatabaseType.POSTGRES;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Обновление БД, которую создал ddl-auto=update до перехода на Flyway (V1__baseline.sql - её схема
+// один в один): baseline-on-migrate пропускает V1, остальные миграции должны перенести данные
+// и привести схему к той же, что получается миграциями на пустой БД
+@JdbcTest(properties = "spring.flyway.enabled=false")
+@AutoConfigureEmbeddedDatabase(provider = ZONKY, type = POSTGRES)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class FlywayUpgradeTest {
+
+    private static final String FRESH_SCHEMA = "fresh";
+    
+    @Autowired
+    private DataSource dataSource;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Test
+    void upgradesSchemaCreatedByDdlAuto() {
+        new ResourceDatabasePopulator(new ClassPathResource("db/migration/V1__baseline.sql")).execute(dataSource);
+        // Данные так, как их писала прежняя версия: id из bigserial, рейтинг в отдельной таблице
+        jdbcTemplate.update("INSERT INTO categories (name) VALUES ('electronics'), ('jewelery')");
+        jdbcTemplate.update("INSERT INTO ratings (rate, count) VALUES (4.5, 120), (3.9, 70)");
+        jdbcTemplate.update("INSERT INTO products (title, price, category_id, rating_id) "
+                + "VALUES ('Phone', 199.99, 1, 1), ('Ring', 49.50, 2, 2), ('Cable', 5.00, 1, NULL)");
+        
+        flyway("public").baselineOnMigrate(true).baselineVersion("1").load().migrate();
+        
+        Map<String, Object> phone = jdbcTemplate.queryForMap(
+                "SELECT rating_rate, rating_count, deleted, version, external_id FROM products WHERE id = 1");
+        assertEquals(4.5, phone.get("rating_rate"));
+        assertEquals(120, phone.get("rating_count"));
+        assertEquals(false, phone.get("deleted"));
+        assertEquals(0L, phone.get("version"));
+        assertEquals(null, phone.get("external_id"));
+        assertEquals(3, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM products", Integer.class));
+        
+        // Hibernate берёт из последовательности верхнюю границу блока из 50 id: весь блок выше старых id
+        long nextProductBlock = jdbcTemplate.queryForObject("SELECT nextval('products_seq')", Long.class);
+        long nextCategoryBlock = jdbcTemplate.queryForObject("SELECT nextval('categories_seq')", Long.class);
+        assertTrue(nextProductBlock - 50 >= 3, "блок id товаров пересекается со старыми: " + nextProductBlock);
+        assertTrue(nextCategoryBlock - 50 >= 2, "блок id категорий пересекается со старыми: " + nextCategoryBlock);
+        
+        jdbcTemplate.execute("CREATE SCHEMA " + FRESH_SCHEMA);
+        flyway(FRESH_SCHEMA).load().migrate();
+        
+        assertEquals(columns(FRESH_SCHEMA), columns("public"));
+        assertEquals(sequences(FRESH_SCHEMA), sequences("public"));
+    }
+    
+    private FluentConfiguration flyway(String schema) {
+        return Flyway.configure()
+                .dataSource(dataSource)
+                .schemas(schema)
+                .locations("classpath:db/migration");
+    }
+    
+    private List<String> columns(String schema) {
+        return jdbcTemplate.queryForList(
+                "SELECT table_name || '.' || column_name || ' ' || data_type || ' ' || is_nullable "
+                        + "|| ' ' || COALESCE(column_default, '') "
+                        + "FROM information_schema.columns "
+                        + "WHERE table_schema = ? AND table_name <> 'flyway_schema_history' "
+                        + "ORDER BY table_name, column_name",
+                String.class, schema);
+    }
+    
+    private List<String> sequences(String schema) {
+        return jdbcTemplate.queryForList(
+                "SELECT sequence_name || ' ' || increment FROM information_schema.sequences "
+                        + "WHERE sequence_schema = ? ORDER BY sequence_name",
+                String.class, schema);
+    }
+}
\ No newline at end of file
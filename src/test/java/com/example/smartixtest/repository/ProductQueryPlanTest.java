@@ -0,0 +1,131 @@
+package com.example.smartixtest.repository;
+
+import io.zonky.test.db.AutoConfigureEmbeddedDatabase;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import static io.zonky.test.db.AutoConfigureEmbeddedDatabase.DatabaseProvider.ZONKY;
+import static io.zonky.test.db.AutoConfigureEmbeddedDatabase.DatabaseType.POSTGRES;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+// Планы горячих запросов ProductRepository на PostgreSQL со схемой из миграций Flyway.
+// Запрос выполняется через репозиторий, перехваченный SQL разбирается EXPLAIN (GENERIC_PLAN) -
+// это тот же обобщённый план, который PostgreSQL кэширует для подготовленного запроса.
+// enable_seqscan=off: на пустых таблицах планировщик иначе выбрал бы seq scan и при наличии индекса,
+// а так seq scan в плане остаётся только там, где подходящего индекса нет
+@DataJpaTest(properties = {
+        "spring.flyway.enabled=true",
+        "spring.jpa.hibernate.ddl-auto=validate",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.PostgreSQLDialect",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + "com.example.smartixtest.repository.SqlRecorder",
+        // EXPLAIN (GENERIC_PLAN) с $1, $2 без значений проходит только простым протоколом,
+        // в расширенном драйвер отправляет пустой bind
+        "zonky.test.database.postgres.client.properties.preferQueryMode=simple"})
+@AutoConfigureEmbeddedDatabase(provider = ZONKY, type = POSTGRES)
+class ProductQueryPlanTest {
+
+    private static final BigDecimal MIN_PRICE = new BigDecimal("10.00");
+    private static final BigDecimal MAX_PRICE = new BigDecimal("100.00");
+    
+    @Autowired
+    private ProductRepository productRepository;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @BeforeEach
+    void setUp() {
+        SqlRecorder.clear();
+    }
+    
+    // Запросы пользовательских эндпоинтов и импорта. Полные проходы по каталогу
+    // (перестройка индексов при старте, выгрузка с нуля, мягкое удаление) сюда не входят
+    static Stream<Arguments> hotQueries() {
+        return Stream.of(
+                query("findById", repository -> repository.findById(1L)),
+                query("findAllById", repository -> repository.findAllById(List.of(1L, 2L))),
+                query("findDtoById", repository -> repository.findDtoById(1L)),
+                query("findVersionById", repository -> repository.findVersionById(1L)),
+                query("findDtosByIdIn", repository -> repository.findDtosByIdIn(List.of(1L, 2L))),
+                query("findAllDtos", repository -> repository.findAllDtos(PageRequest.of(1, 20))),
+                query("findDtosByPriceBetween", repository ->
+                        repository.findDtosByPriceBetween(MIN_PRICE, MAX_PRICE, PageRequest.of(1, 20))),
+                query("countByPriceBetweenAndDeletedFalse", repository ->
+                        repository.countByPriceBetweenAndDeletedFalse(MIN_PRICE, MAX_PRICE)),
+                query("findDtoPageAfter", repository -> repository.findDtoPageAfter(100L, PageRequest.of(0, 20))),
+                query("findDtoPriceRangeStart", repository ->
+                        repository.findDtoPriceRangeStart(MIN_PRICE, MAX_PRICE, PageRequest.of(0, 20))),
+                query("findDtoPriceRangeAfter", repository -> repository.findDtoPriceRangeAfter(
+                        MIN_PRICE, MAX_PRICE, new BigDecimal("50.00"), 100L, PageRequest.of(0, 20))),
+                query("streamDtosAfter", repository -> {
+                    try (Stream<?> products = repository.streamDtosAfter(100L)) {
+                        products.count();
+                    }
+                }),
+                query("findAllUniqueCategories", ProductRepository::findAllUniqueCategories),
+                query("findImportStates", repository -> repository.findImportStates(List.of("host:1", "host:2"))));
+    }
+    
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("hotQueries")
+    void hotQueryUsesIndexes(String name, Consumer<ProductRepository> query) {
+        query.accept(productRepository);
+        
+        List<String> statements = SqlRecorder.statements();
+        assertFalse(statements.isEmpty(), name + ": запрос не дошёл до БД");
+        for (String sql : statements) {
+            String plan = explain(sql);
+            assertFalse(plan.contains("Seq Scan"), () -> name + ": seq scan в плане\n" + sql + "\n" + plan);
+        }
+    }
+    
+    private static Arguments query(String name, Consumer<ProductRepository> query) {
+        return Arguments.of(name, query);
+    }
+    
+    private String explain(String sql) {
+        return jdbcTemplate.execute((ConnectionCallback<String>) connection -> {
+            try (Statement statement = connection.createStatement()) {
+                // SET LOCAL действует до конца тестовой транзакции
+                statement.execute("SET LOCAL enable_seqscan = off");
+                StringBuilder plan = new StringBuilder();
+                try (ResultSet rows = statement.executeQuery("EXPLAIN (GENERIC_PLAN) " + numberParameters(sql))) {
+                    while (rows.next()) {
+                        plan.append(rows.getString(1)).append('\n');
+                    }
+                }
+                return plan.toString();
+            }
+        });
+    }
+    
+    // JDBC-плейсхолдеры ? в нумерованные $1, $2, ... для EXPLAIN (GENERIC_PLAN)
+    private static String numberParameters(String sql) {
+        StringBuilder numbered = new StringBuilder(sql.length() + 16);
+        int parameter = 0;
+        for (int i = 0; i < sql.length(); i++) {
+            char ch = sql.charAt(i);
+            if (ch == '?') {
+                numbered.append('$').append(++parameter);
+            } else {
+                numbered.append(ch);
+            }
+        }
+        return numbered.toString();
+    }
+}
\ No newline at end of file
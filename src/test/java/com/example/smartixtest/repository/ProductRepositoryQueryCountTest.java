@@ -0,0 +1,84 @@
+package com.example.smartixtest.repository;
+
+import com.example.smartixtest.dto.ProductDto;
+import com.example.smartixtest.model.Category;
+import com.example.smartixtest.model.Product;
+import com.example.smartixtest.model.Rating;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+// Страница товаров вместе с категориями и рейтингами должна загружаться
+// постоянным числом запросов, независимо от размера страницы
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class ProductRepositoryQueryCountTest {
+
+    private static final int PAGE_SIZE = 50;
+    
+    @Autowired
+    private ProductRepository productRepository;
+    
+    @Autowired
+    private TestEntityManager entityManager;
+    
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    
+    private Statistics statistics;
+    
+    @BeforeEach
+    void setUp() {
+        List<Category> categories = List.of(
+                entityManager.persist(new Category(null, "electronics")),
+                entityManager.persist(new Category(null, "jewelery")),
+                entityManager.persist(new Category(null, "clothing")));
+        
+        for (int i = 0; i < PAGE_SIZE * 2; i++) {
+            entityManager.persist(Product.builder()
+                    .title("Product " + i)
+                    .price(BigDecimal.valueOf(10 + i))
+                    .category(categories.get(i % categories.size()))
+                    .rating(new Rating(4.0, i))
+                    .build());
+        }
+        entityManager.flush();
+        entityManager.clear();
+        
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+    
+    @Test
+    void dtoPageLoadsInTwoQueries() {
+        List<ProductDto> page = productRepository.findAllDtos(PageRequest.of(1, PAGE_SIZE)).getContent();
+        
+        assertEquals(PAGE_SIZE, page.size());
+        assertNotNull(page.get(0).getCategory());
+        assertNotNull(page.get(0).getRating());
+        // страница + count
+        assertEquals(2, statistics.getPrepareStatementCount());
+        // проекции не попадают в persistence context
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+    
+    @Test
+    void keysetPageLoadsInOneQuery() {
+        List<ProductDto> page = productRepository.findDtoPriceRangeStart(
+                BigDecimal.ZERO, BigDecimal.valueOf(1000), PageRequest.of(0, PAGE_SIZE));
+        
+        assertEquals(PAGE_SIZE, page.size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+}
\ No newline at end of file
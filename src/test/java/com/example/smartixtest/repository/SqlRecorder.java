@@ -0,0 +1,26 @@
+package com.example.smartixtest.repository;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+// Запоминает SQL, который Hibernate отправляет в БД, чтобы тест мог получить его план
+public class SqlRecorder implements StatementInspector {
+
+    private static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+    
+    @Override
+    public String inspect(String sql) {
+        STATEMENTS.add(sql);
+        return sql;
+    }
+    
+    static List<String> statements() {
+        return List.copyOf(STATEMENTS);
+    }
+    
+    static void clear() {
+        STATEMENTS.clear();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,113 @@
+package com.example.smartixtest.search;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.LongPredicate;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InvertedIndexTest {
+
+    private final InvertedIndex index = new InvertedIndex();
+    
+    // Любая страница из кучи совпадает с соответствующим куском полной сортировки:
+    // по убыванию релевантности, при равенстве - в порядке добавления
+    @Test
+    void topPagesMatchFullRanking() {
+        List<Long> expected = new ArrayList<>();
+        for (long id = 1; id <= 60; id++) {
+            index.add(id, "apple ".repeat(repeats(id)), null, null, null);
+            expected.add(id);
+        }
+        expected.sort(Comparator.comparingInt((Long id) -> -repeats(id)).thenComparing(id -> id));
+        
+        for (int offset = 0; offset < 70; offset += 7) {
+            SearchHits hits = index.search(query("apple"), offset, 7);
+            assertEquals(60, hits.total());
+            assertEquals(expected.subList(Math.min(offset, 60), Math.min(offset + 7, 60)), hits.productIds());
+        }
+        assertEquals(expected, index.search(query("apple"), 0, 100).productIds());
+    }
+    
+    // Пересечение короткого списка с длинными экспоненциальным поиском даёт то же, что перебор
+    @Test
+    void intersectionMatchesBruteForce() {
+        for (long id = 1; id <= 5000; id++) {
+            String title = "common" + (id % 97 == 0 ? " rare" : "") + (id % 3 == 0 ? " mid" : "");
+            index.add(id, title, id % 2 == 0 ? "tail" : null, null, null);
+        }
+        
+        assertEquals(ids(5000, id -> id % 291 == 0), index.search(query("rare mid"), 0, 1000).productIds());
+        assertEquals(ids(5000, id -> id % 194 == 0), index.search(query("tail rare"), 0, 1000).productIds());
+        assertEquals(ids(5000, id -> id % 582 == 0), index.search(query("common tail mid rare"), 0, 1000).productIds());
+        assertEquals(ids(5000, id -> id % 2 == 0 && id % 3 == 0).size(),
+                index.search(query("tail mid"), 0, 10).total());
+    }
+    
+    // Компакция перенумеровывает документы: поиск, удаление и повторное добавление по id продолжают работать
+    @Test
+    void compactionKeepsResultsAndIdMapping() {
+        for (long id = 1; id <= 20_001; id++) {
+            index.add(id, "item", id % 2 == 0 ? "even" : "odd", null, null);
+        }
+        for (long id = 1; id <= 10_001; id++) {
+            assertTrue(index.remove(id));
+        }
+        
+        assertEquals(10_000, index.size());
+        assertEquals(10_000, ReflectionTestUtils.getField(index, "docCount"));
+        assertFalse(index.remove(5));
+        assertEquals(List.of(10_002L, 10_003L), index.search(query("item"), 0, 2).productIds());
+        assertEquals(5_000, index.search(query("item even"), 0, 1).total());
+        
+        assertTrue(index.remove(10_002));
+        index.add(5, "item", "even", null, null);
+        assertEquals(List.of(10_003L, 10_004L), index.search(query("item"), 0, 2).productIds());
+        assertEquals(5_000, index.search(query("item even"), 0, 1).total());
+        assertEquals(List.of(5L), index.search(query("item even"), 4_999, 1).productIds());
+    }
+    
+    @Test
+    void onlyLastTokenIsPrefix() {
+        index.add(1, "Apple pie", null, null, null);
+        index.add(2, "Application form", null, null, null);
+        
+        assertEquals(2, index.search(query("app"), 0, 10).total());
+        assertEquals(0, index.search(query("ap"), 0, 10).total());
+        assertEquals(0, index.search(query("app form"), 0, 10).total());
+        assertEquals(List.of(2L), index.search(query("form app"), 0, 10).productIds());
+    }
+    
+    @Test
+    void filtersByCategoryAndPrice() {
+        index.add(1, "Silver ring", null, "jewelery", new BigDecimal("10"));
+        index.add(2, "Gold ring", null, "jewelery", new BigDecimal("250"));
+        index.add(3, "Ring binder", null, "office", new BigDecimal("5"));
+        index.add(4, "Ring light", null, "jewelery", null);
+        
+        assertEquals(List.of(1L, 2L, 4L), index.search(new SearchQuery("ring", "jewelery", null, null), 0, 10).productIds());
+        assertEquals(List.of(1L, 3L),
+                index.search(new SearchQuery("ring", null, null, new BigDecimal("10")), 0, 10).productIds());
+        assertEquals(0, index.search(new SearchQuery("ring", "toys", null, null), 0, 10).total());
+    }
+    
+    private static SearchQuery query(String text) {
+        return new SearchQuery(text, null, null, null);
+    }
+    
+    private static int repeats(long id) {
+        return (int) (id % 4) + 1;
+    }
+    
+    private static List<Long> ids(long max, LongPredicate filter) {
+        return LongStream.rangeClosed(1, max).filter(filter).boxed().toList();
+    }
+}
\ No newline at end of file
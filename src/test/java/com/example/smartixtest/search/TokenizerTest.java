@@ -0,0 +1,32 @@
+package com.example.smartixtest.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TokenizerTest {
+
+    @Test
+    void splitsOnNonAlphanumericAndLowercases() {
+        assertEquals(List.of("mens", "cotton", "shirt", "2024"), Tokenizer.tokenize("Mens Cotton-SHIRT, 2024!"));
+    }
+    
+    @Test
+    void dropsSingleCharacterTokens() {
+        assertEquals(List.of("shirt", "size", "xl"), Tokenizer.tokenize("T shirt, size: XL"));
+    }
+    
+    @Test
+    void normalizesYoAndKeepsCyrillic() {
+        assertEquals(List.of("ежик", "зеленый"), Tokenizer.tokenize("Ёжик ЗЕЛЁНЫЙ"));
+    }
+    
+    @Test
+    void emptyInputHasNoTokens() {
+        assertEquals(List.of(), Tokenizer.tokenize(null));
+        assertEquals(List.of(), Tokenizer.tokenize(""));
+        assertEquals(List.of(), Tokenizer.tokenize(" - / a "));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,116 @@
+package com.example.smartixtest.service.impl;
+
+import com.example.smartixtest.dto.CategoryStatsDto;
+import com.example.smartixtest.event.ProductSnapshot;
+import com.example.smartixtest.event.ProductsChangedEvent;
+import com.example.smartixtest.repository.ProductCategoryPrice;
+import com.example.smartixtest.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// События, пришедшие во время перестройки: уже прочитанные из БД не считаются дважды,
+// остальные не теряются
+class CategoryIndexImplTest {
+
+    private final List<ProductCategoryPrice> rows = new ArrayList<>();
+    private Runnable duringRebuild = () -> { };
+    private ProductRepository productRepository;
+    private CategoryIndexImpl categoryIndex;
+    
+    @BeforeEach
+    void setUp() {
+        productRepository = mock(ProductRepository.class);
+        when(productRepository.streamCategoryPrices()).thenAnswer(invocation -> {
+            duringRebuild.run();
+            return new ArrayList<>(rows).stream();
+        });
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        categoryIndex = new CategoryIndexImpl(productRepository, transactionManager);
+    }
+    
+    @Test
+    void eventsDuringRebuildAreNeitherLostNorDoubleCounted() {
+        rows.add(row(1L, "rings", "10"));
+        categoryIndex.rebuild();
+        
+        // Товар 2 уже закоммичен и попадёт в чтение; перенос товара 1 закоммичен после чтения
+        rows.add(row(2L, "rings", "30"));
+        duringRebuild = () -> {
+            categoryIndex.onProductsChanged(change(null, snapshot(2L, "rings", "30")));
+            categoryIndex.onProductsChanged(change(snapshot(1L, "rings", "10"), snapshot(1L, "watches", "99")));
+        };
+        categoryIndex.rebuild();
+        
+        List<CategoryStatsDto> stats = categoryIndex.getCategoryStats();
+        assertEquals(List.of("rings", "watches"), categoryIndex.getCategoryNames());
+        assertEquals(1, stats.get(0).getProductCount());
+        assertEquals(new BigDecimal("30"), stats.get(0).getMinPrice());
+        assertEquals(1, stats.get(1).getProductCount());
+        assertEquals(new BigDecimal("99"), stats.get(1).getMaxPrice());
+    }
+    
+    // Пока индекс не построен, список и статистика одинаково берутся из БД
+    @Test
+    void statsFallBackToDatabaseUntilFirstRebuild() {
+        CategoryStatsDto rings = new CategoryStatsDto("rings", 2, new BigDecimal("10"), new BigDecimal("30"));
+        when(productRepository.findAllUniqueCategories()).thenReturn(List.of("rings"));
+        when(productRepository.findCategoryStats()).thenReturn(List.of(rings));
+        
+        assertEquals(List.of("rings"), categoryIndex.getCategoryNames());
+        assertEquals(List.of(rings), categoryIndex.getCategoryStats());
+        
+        categoryIndex.rebuild();
+        assertEquals(List.of(), categoryIndex.getCategoryStats());
+    }
+    
+    @Test
+    void deletingLastProductRemovesCategory() {
+        rows.add(row(1L, "rings", "10"));
+        categoryIndex.rebuild();
+        
+        categoryIndex.onProductsChanged(change(snapshot(1L, "rings", "10"), null));
+        categoryIndex.onProductsChanged(change(snapshot(1L, "rings", "10"), null));
+        
+        assertEquals(List.of(), categoryIndex.getCategoryNames());
+    }
+    
+    private static ProductsChangedEvent change(ProductSnapshot before, ProductSnapshot after) {
+        return new ProductsChangedEvent(List.of(new ProductsChangedEvent.Change(before, after)));
+    }
+    
+    private static ProductSnapshot snapshot(Long id, String category, String price) {
+        return new ProductSnapshot(id, "product " + id, null, category, new BigDecimal(price), null, null);
+    }
+    
+    private static ProductCategoryPrice row(Long id, String category, String price) {
+        return new ProductCategoryPrice() {
+            
+            @Override
+            public Long getId() {
+                return id;
+            }
+            
+            @Override
+            public String getCategory() {
+                return category;
+            }
+            
+            @Override
+            public BigDecimal getPrice() {
+                return new BigDecimal(price);
+            }
+        };
+    }
+}
\ No newline at end of file
@@ -0,0 +1,160 @@
+package com.example.smartixtest.service.impl;
+
+import com.example.smartixtest.dto.ProductDto;
+import com.example.smartixtest.service.ImportProgress;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Загрузка фида с локального stub-сервера, без обращения к fakestoreapi.com
+class ExternalProductFetcherTest {
+
+    private static final String PRODUCTS = """
+            [{"id":1,"title":"Backpack","price":109.95,"category":"men's clothing","rating":{"rate":3.9,"count":120}},
+             {"id":2,"title":"T-Shirt","price":22.3,"category":"men's clothing"},
+             {"id":3,"title":"Ring","price":9.99,"category":"jewelery"}]
+            """;
+    
+    private HttpServer server;
+    private ExternalProductFetcher fetcher;
+    private final AtomicInteger flakyCalls = new AtomicInteger();
+    private final AtomicInteger malformedCalls = new AtomicInteger();
+    
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/products", exchange -> respond(exchange, 200, PRODUCTS));
+        server.createContext("/flaky", exchange -> {
+            if (flakyCalls.incrementAndGet() == 1) {
+                respond(exchange, 503, "");
+            } else {
+                respond(exchange, 200, PRODUCTS);
+            }
+        });
+        server.createContext("/missing", exchange -> respond(exchange, 404, ""));
+        server.createContext("/truncated",
+                exchange -> respond(exchange, 200, PRODUCTS.substring(0, PRODUCTS.indexOf("{\"id\":3"))));
+        server.createContext("/malformed", exchange -> {
+            malformedCalls.incrementAndGet();
+            respond(exchange, 200, "<html>maintenance</html>");
+        });
+        server.createContext("/large", exchange -> respond(exchange, 200, largeFeed(500)));
+        server.start();
+        
+        fetcher = new ExternalProductFetcher(
+                new RestTemplate(new JdkClientHttpRequestFactory()), new ObjectMapper());
+        ReflectionTestUtils.setField(fetcher, "maxAttempts", 3);
+        ReflectionTestUtils.setField(fetcher, "retryBackoff", Duration.ofMillis(10));
+    }
+    
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+    
+    @Test
+    void streamsEveryProduct() {
+        List<ProductDto> products = new ArrayList<>();
+        
+        int attempts = fetcher.fetch(url("/products"), products::add);
+        
+        assertEquals(1, attempts);
+        assertEquals(3, products.size());
+        assertEquals("Backpack", products.get(0).getTitle());
+        assertEquals(120, products.get(0).getRating().getCount());
+    }
+    
+    @Test
+    void retriesServerErrors() {
+        List<ProductDto> products = new ArrayList<>();
+        
+        int attempts = fetcher.fetch(url("/flaky"), products::add);
+        
+        assertEquals(2, attempts);
+        assertEquals(3, products.size());
+    }
+    
+    // Доля прочитанного тела по Content-Length растёт по ходу чтения, а не только по завершении источника
+    @Test
+    void reportsBytesReadAgainstContentLength() {
+        ImportProgress progress = new ImportProgress();
+        progress.start(1);
+        ImportProgress.SourceBytes bytes = progress.sourceBytes();
+        List<Double> seen = new ArrayList<>();
+        
+        fetcher.fetch(url("/large"), product -> seen.add(progress.getSourcesRead()), bytes);
+        
+        assertEquals(500, seen.size());
+        assertTrue(seen.get(0) > 0 && seen.get(0) < 0.5, "доля после первого товара: " + seen.get(0));
+        assertEquals(1.0, progress.getSourcesRead(), 1e-9);
+        progress.sourceCompleted(bytes, false);
+        assertEquals(1.0, progress.getSourcesRead(), 1e-9);
+    }
+    
+    // Тело оборвано между товарами: отданные товары остаются, источник завершается ошибкой без повтора
+    @Test
+    void truncatedFeedFailsSource() {
+        List<ProductDto> products = new ArrayList<>();
+        
+        assertThrows(RestClientException.class, () -> fetcher.fetch(url("/truncated"), products::add));
+        assertEquals(2, products.size());
+    }
+    
+    @Test
+    void doesNotRetryMalformedJson() {
+        assertThrows(RestClientException.class, () -> fetcher.fetch(url("/malformed"), product -> { }));
+        assertEquals(1, malformedCalls.get());
+    }
+    
+    @Test
+    void doesNotRetryClientErrors() {
+        assertThrows(HttpClientErrorException.NotFound.class,
+                () -> fetcher.fetch(url("/missing"), product -> { }));
+    }
+    
+    // Фид больше буфера парсера, чтобы тело читалось в несколько приёмов
+    private static String largeFeed(int size) {
+        StringBuilder feed = new StringBuilder("[");
+        for (int id = 1; id <= size; id++) {
+            feed.append(id > 1 ? "," : "")
+                    .append("{\"id\":").append(id)
+                    .append(",\"title\":\"Product ").append(id)
+                    .append("\",\"price\":9.99,\"category\":\"jewelery\"}");
+        }
+        return feed.append("]").toString();
+    }
+    
+    private String url(String path) {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + path;
+    }
+    
+    private static void respond(com.sun.net.httpserver.HttpExchange exchange, int status, String body)
+            throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length == 0 ? -1 : bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
\ No newline at end of file
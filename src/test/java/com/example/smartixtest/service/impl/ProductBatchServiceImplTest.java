@@ -0,0 +1,230 @@
+package com.example.smartixtest.service.impl;
+
+import com.example.smartixtest.config.CacheConfig;
+import com.example.smartixtest.dto.BatchItemResultDto;
+import com.example.smartixtest.dto.ProductBatchRequest;
+import com.example.smartixtest.dto.ProductBatchResponse;
+import com.example.smartixtest.dto.ProductDto;
+import com.example.smartixtest.event.ProductsChangedEvent;
+import com.example.smartixtest.mapper.ProductMapper;
+import com.example.smartixtest.model.Product;
+import com.example.smartixtest.repository.ProductRepository;
+import com.example.smartixtest.service.CategoryResolver;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// Пакетная запись без БД: репозиторий - карта товаров в памяти, изменения транзакции сохраняются
+// только при успешном flush. Для отдельных id flush можно заставить падать, как при параллельном
+// изменении товара или сбое записи
+class ProductBatchServiceImplTest {
+
+    private final Map<Long, Product> products = new HashMap<>();
+    private final Map<Long, RuntimeException> failingIds = new HashMap<>();
+    private final List<Product> saved = new ArrayList<>();
+    private final List<Product> deleted = new ArrayList<>();
+    private final AtomicLong nextId = new AtomicLong(100);
+    private final List<ProductsChangedEvent> events = new ArrayList<>();
+    private int transactions;
+    private Cache productCache;
+    private ProductBatchServiceImpl batchService;
+    
+    @BeforeEach
+    void setUp() {
+        for (long id = 1; id <= 3; id++) {
+            products.put(id, product(id));
+        }
+        
+        ProductRepository productRepository = mock(ProductRepository.class);
+        when(productRepository.findAllById(anyIterable())).thenAnswer(invocation -> {
+            List<Product> found = new ArrayList<>();
+            for (Long id : invocation.<Iterable<Long>>getArgument(0)) {
+                Product product = products.get(id);
+                if (product != null) {
+                    found.add(copy(product));
+                }
+            }
+            return found;
+        });
+        when(productRepository.saveAll(anyIterable())).thenAnswer(invocation -> {
+            invocation.<Iterable<Product>>getArgument(0).forEach(saved::add);
+            return new ArrayList<>(saved);
+        });
+        doAnswer(invocation -> {
+            invocation.<Iterable<Product>>getArgument(0).forEach(deleted::add);
+            return null;
+        }).when(productRepository).deleteAll(anyIterable());
+        doAnswer(invocation -> {
+            commit();
+            return null;
+        }).when(productRepository).flush();
+        
+        CategoryResolver categoryResolver = mock(CategoryResolver.class);
+        when(categoryResolver.resolveAll(any())).thenReturn(Map.of());
+        
+        // Новая транзакция начинается с пустого контекста
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenAnswer(invocation -> {
+            transactions++;
+            saved.clear();
+            deleted.clear();
+            return new SimpleTransactionStatus();
+        });
+        
+        ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+        doAnswer(invocation -> events.add(invocation.getArgument(0)))
+                .when(eventPublisher).publishEvent(any(Object.class));
+        
+        ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager(CacheConfig.PRODUCTS_CACHE);
+        productCache = cacheManager.getCache(CacheConfig.PRODUCTS_CACHE);
+        batchService = new ProductBatchServiceImpl(productRepository, categoryResolver, new ProductMapper(),
+                Validation.buildDefaultValidatorFactory().getValidator(), cacheManager, eventPublisher,
+                transactionManager);
+        ReflectionTestUtils.setField(batchService, "maxBatchSize", 1000);
+    }
+    
+    @Test
+    void successfulBatchIsWrittenInOneTransaction() {
+        ProductBatchResponse response = batchService.apply(ProductBatchRequest.builder()
+                .create(List.of(dto(null, "new")))
+                .update(List.of(dto(1L, "first")))
+                .delete(List.of(3L))
+                .build());
+        
+        assertEquals(3, response.getSucceeded());
+        assertEquals(0, response.getFailed());
+        assertEquals(List.of(201, 200, 204), statuses(response));
+        assertEquals(1, transactions);
+        assertEquals(1, events.size());
+        assertEquals(3, events.get(0).changes().size());
+    }
+    
+    // Параллельное изменение одного товара не откатывает остальные элементы пачки
+    @Test
+    void conflictFailsOnlyItsOwnItem() {
+        failingIds.put(2L, new OptimisticLockingFailureException("Товар 2 изменён"));
+        productCache.put(1L, "cached");
+        productCache.put(2L, "cached");
+        
+        ProductBatchResponse response = batchService.apply(ProductBatchRequest.builder()
+                .create(List.of(dto(null, "new")))
+                .update(List.of(dto(1L, "first"), dto(2L, "second")))
+                .delete(List.of(3L))
+                .build());
+        
+        assertEquals(3, response.getSucceeded());
+        assertEquals(1, response.getFailed());
+        assertEquals(List.of(201, 200, 409, 204), statuses(response));
+        BatchItemResultDto conflict = response.getResults().get(2);
+        assertEquals(2L, conflict.getId());
+        assertNotNull(conflict.getError());
+        
+        assertEquals("first", products.get(1L).getTitle());
+        assertEquals(1L, products.get(1L).getVersion());
+        assertEquals("product 2", products.get(2L).getTitle());
+        assertEquals(0L, products.get(2L).getVersion());
+        assertFalse(products.containsKey(3L));
+        assertEquals("new", products.get(100L).getTitle());
+        
+        // Пачка целиком и затем каждый элемент в своей транзакции; события - только от закоммиченных
+        assertEquals(5, transactions);
+        assertEquals(3, events.size());
+        assertNull(productCache.get(1L));
+        assertNotNull(productCache.get(2L));
+    }
+    
+    @Test
+    void writeFailureOfOneItemIsReportedAsServerError() {
+        failingIds.put(3L, new DataAccessResourceFailureException("Соединение прервано"));
+        
+        ProductBatchResponse response = batchService.apply(ProductBatchRequest.builder()
+                .update(List.of(dto(1L, "first"), dto(99L, "missing")))
+                .delete(List.of(3L))
+                .build());
+        
+        assertEquals(List.of(200, 404, 500), statuses(response));
+        assertEquals(1, response.getSucceeded());
+        assertEquals(2, response.getFailed());
+        assertEquals("first", products.get(1L).getTitle());
+        assertTrue(products.containsKey(3L));
+    }
+    
+    private void commit() {
+        for (Product product : saved) {
+            RuntimeException failure = failingIds.get(product.getId());
+            if (failure != null) {
+                throw failure;
+            }
+        }
+        for (Product product : deleted) {
+            RuntimeException failure = failingIds.get(product.getId());
+            if (failure != null) {
+                throw failure;
+            }
+        }
+        for (Product product : saved) {
+            if (product.getId() == null) {
+                product.setId(nextId.getAndIncrement());
+                product.setVersion(0L);
+            } else {
+                product.setVersion(product.getVersion() + 1);
+            }
+            products.put(product.getId(), product);
+        }
+        deleted.forEach(product -> products.remove(product.getId()));
+    }
+    
+    private static List<Integer> statuses(ProductBatchResponse response) {
+        return response.getResults().stream().map(BatchItemResultDto::getStatus).toList();
+    }
+    
+    private static ProductDto dto(Long id, String title) {
+        return ProductDto.builder()
+                .id(id)
+                .title(title)
+                .price(BigDecimal.TEN)
+                .build();
+    }
+    
+    private static Product copy(Product product) {
+        Product copy = product(product.getId());
+        copy.setTitle(product.getTitle());
+        copy.setVersion(product.getVersion());
+        return copy;
+    }
+    
+    private static Product product(Long id) {
+        Product product = new Product();
+        product.setId(id);
+        product.setTitle("product " + id);
+        product.setPrice(BigDecimal.ONE);
+        product.setVersion(0L);
+        return product;
+    }
+}
\ No newline at end of file
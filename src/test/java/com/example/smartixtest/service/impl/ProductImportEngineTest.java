@@ -0,0 +1,85 @@
+package com.example.smartixtest.service.impl;
+
+import com.example.smartixtest.dto.ImportSummaryDto;
+import com.example.smartixtest.service.ImportProgress;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// Загрузчик источников подменён: первый источник не реагирует на прерывание и висит дольше таймаута
+class ProductImportEngineTest {
+
+    // Источник, прерванный по таймауту, держит разрешение, пока его загрузка не завершится
+    @Test
+    void timedOutSourceKeepsPermitUntilFetchExits() {
+        CountDownLatch hungReleased = new CountDownLatch(1);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        
+        ExternalProductFetcher fetcher = mock(ExternalProductFetcher.class);
+        when(fetcher.fetch(anyString(), any(), any())).thenAnswer(invocation -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            try {
+                if (invocation.<String>getArgument(0).endsWith("/hung")) {
+                    awaitUninterruptibly(hungReleased);
+                }
+                return 1;
+            } finally {
+                running.decrementAndGet();
+            }
+        });
+        
+        ProductImportEngine engine = new ProductImportEngine(fetcher, mock(ProductImportWriter.class),
+                mock(CacheManager.class));
+        ReflectionTestUtils.setField(engine, "maxConcurrency", 1);
+        ReflectionTestUtils.setField(engine, "sourceTimeout", Duration.ofMillis(50));
+        ReflectionTestUtils.setField(engine, "chunkSize", 500);
+        
+        new Thread(() -> {
+            sleep(300);
+            hungReleased.countDown();
+        }).start();
+        ImportSummaryDto summary = engine.importFrom(
+                List.of("http://feed.test/hung", "http://feed.test/products"), new ImportProgress());
+        
+        assertEquals(1, maxRunning.get());
+        assertEquals(1, summary.getFailedSources());
+        assertNotNull(summary.getSources().get(0).getError());
+    }
+    
+    private static void awaitUninterruptibly(CountDownLatch latch) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                latch.await(5, TimeUnit.SECONDS);
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
\ No newline at end of file
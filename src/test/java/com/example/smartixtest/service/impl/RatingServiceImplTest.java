@@ -0,0 +1,267 @@
+package com.example.smartixtest.service.impl;
+
+import com.example.smartixtest.config.CacheConfig;
+import com.example.smartixtest.exception.ServiceUnavailableException;
+import com.example.smartixtest.model.Product;
+import com.example.smartixtest.model.Rating;
+import com.example.smartixtest.repository.ProductRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// Write-behind оценок без БД: репозиторий - карта товаров в памяти. Запись отдаёт копии товаров
+// и сохраняет их только при успешном flush, как при коммите; flush можно заставить падать
+class RatingServiceImplTest {
+
+    private static final long PRODUCT_ID = 1L;
+    
+    private final Map<Long, Product> products = new ConcurrentHashMap<>();
+    private final AtomicBoolean failWrites = new AtomicBoolean();
+    private final AtomicInteger writes = new AtomicInteger();
+    private final List<Product> loaded = new ArrayList<>();
+    private Runnable beforeCommit = () -> { };
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private ConcurrentMapCacheManager cacheManager;
+    private RatingServiceImpl ratingService;
+    
+    @BeforeEach
+    void setUp() {
+        products.put(PRODUCT_ID, product(PRODUCT_ID));
+        
+        ProductRepository productRepository = mock(ProductRepository.class);
+        when(productRepository.findAllById(anyIterable())).thenAnswer(invocation -> {
+            loaded.clear();
+            for (Long id : invocation.<Iterable<Long>>getArgument(0)) {
+                Product product = products.get(id);
+                if (product != null) {
+                    loaded.add(copy(product));
+                }
+            }
+            return new ArrayList<>(loaded);
+        });
+        doAnswer(invocation -> {
+            beforeCommit.run();
+            if (failWrites.get()) {
+                throw new IllegalStateException("БД недоступна");
+            }
+            for (Product product : loaded) {
+                product.setVersion(product.getVersion() + 1);
+                products.put(product.getId(), product);
+            }
+            writes.incrementAndGet();
+            return null;
+        }).when(productRepository).flush();
+        
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        
+        cacheManager = new ConcurrentMapCacheManager(CacheConfig.PRODUCTS_CACHE);
+        ratingService = new RatingServiceImpl(productRepository, cacheManager, mock(ApplicationEventPublisher.class),
+                transactionManager, meterRegistry);
+        ReflectionTestUtils.setField(ratingService, "maxPendingProducts", 1000);
+    }
+    
+    @Test
+    void flushWritesAverageAndEvictsCache() {
+        cacheManager.getCache(CacheConfig.PRODUCTS_CACHE).put(PRODUCT_ID, "cached");
+        ratingService.addRating(PRODUCT_ID, 5);
+        ratingService.addRating(PRODUCT_ID, 4);
+        assertEquals(2, ratingService.pendingCount(PRODUCT_ID, 0));
+        
+        assertEquals(1, ratingService.flush());
+        
+        Rating rating = products.get(PRODUCT_ID).getRating();
+        assertEquals(12, rating.getCount());
+        assertEquals(3.25, rating.getRate());
+        assertEquals(0, ratingService.pendingCount(PRODUCT_ID, 0));
+        assertEquals(null, cacheManager.getCache(CacheConfig.PRODUCTS_CACHE).get(PRODUCT_ID));
+    }
+    
+    // Неудачная запись возвращает оценки к принятым ровно один раз, следующая запись их сохраняет
+    @Test
+    void failedFlushKeepsRatingsForNextFlush() {
+        ratingService.addRating(PRODUCT_ID, 5);
+        failWrites.set(true);
+        
+        assertEquals(0, ratingService.flush());
+        assertEquals(1, ratingService.pendingCount(PRODUCT_ID, 0));
+        
+        ratingService.addRating(PRODUCT_ID, 5);
+        failWrites.set(false);
+        assertEquals(1, ratingService.flush());
+        assertEquals(12, products.get(PRODUCT_ID).getRating().getCount());
+        assertEquals(0, ratingService.pendingCount(PRODUCT_ID, 0));
+    }
+    
+    // Пока запись падает, принятые и возвращённые оценки копятся до предела упаковки, дальше 503
+    @Test
+    void ratingsBeyondPackedLimitAreRejectedUntilFlushSucceeds() {
+        ReflectionTestUtils.setField(ratingService, "maxUnflushedRatings", 3);
+        failWrites.set(true);
+        ratingService.addRating(PRODUCT_ID, 5);
+        ratingService.addRating(PRODUCT_ID, 5);
+        assertEquals(0, ratingService.flush());
+        ratingService.addRating(PRODUCT_ID, 5);
+        assertEquals(0, ratingService.flush());
+        
+        assertThrows(ServiceUnavailableException.class, () -> ratingService.addRating(PRODUCT_ID, 5));
+        assertEquals(3, ratingService.pendingCount(PRODUCT_ID, 0));
+        
+        failWrites.set(false);
+        assertEquals(1, ratingService.flush());
+        ratingService.addRating(PRODUCT_ID, 5);
+        assertEquals(13, products.get(PRODUCT_ID).getRating().getCount());
+        assertEquals(1, ratingService.pendingCount(PRODUCT_ID, 1));
+    }
+    
+    @Test
+    void ratingsOfMissingProductAreDropped() {
+        ratingService.addRating(42L, 5);
+        
+        assertEquals(0, ratingService.flush());
+        assertEquals(0, ratingService.pendingCount(42L, 0));
+        assertEquals(1.0, meterRegistry.counter("ratings.dropped").count());
+    }
+    
+    // Во время записи принятые оценки видны чтению старой версии товара и не видны чтению новой
+    @Test
+    void inFlightRatingsVisibleOnlyForVersionBeingWritten() {
+        ratingService.addRating(PRODUCT_ID, 5);
+        AtomicLong seenByOldVersion = new AtomicLong(-1);
+        AtomicLong seenByNewVersion = new AtomicLong(-1);
+        beforeCommit = () -> {
+            seenByOldVersion.set(ratingService.pendingCount(PRODUCT_ID, 0));
+            seenByNewVersion.set(ratingService.pendingCount(PRODUCT_ID, 1));
+        };
+        
+        ratingService.flush();
+        
+        assertEquals(1, seenByOldVersion.get());
+        assertEquals(0, seenByNewVersion.get());
+    }
+    
+    // Запись всё время падает, поэтому в "БД" ничего не меняется и чтение версии 0 должно видеть
+    // все принятые оценки: не меньше, чем было принято до чтения, и не больше, чем начато к его концу.
+    // Оценки других товаров делают пачку flush большой, а окна между шагами flush - широкими
+    @Test
+    void concurrentSubmitFlushAndReadNeitherLoseNorDoubleCount() throws Exception {
+        failWrites.set(true);
+        for (long id = 2; id <= 500; id++) {
+            ratingService.addRating(id, 3);
+        }
+        int submitters = 4;
+        int ratingsPerSubmitter = 20_000;
+        AtomicLong started = new AtomicLong();
+        AtomicLong accepted = new AtomicLong();
+        AtomicBoolean done = new AtomicBoolean();
+        CountDownLatch start = new CountDownLatch(1);
+        
+        ExecutorService executor = Executors.newFixedThreadPool(submitters + 3);
+        try {
+            List<Future<?>> tasks = new ArrayList<>();
+            for (int i = 0; i < submitters; i++) {
+                tasks.add(executor.submit(() -> {
+                    await(start);
+                    for (int n = 0; n < ratingsPerSubmitter; n++) {
+                        started.incrementAndGet();
+                        ratingService.addRating(PRODUCT_ID, 4);
+                        accepted.incrementAndGet();
+                    }
+                }));
+            }
+            Future<?> flusher = executor.submit(() -> {
+                await(start);
+                while (!done.get()) {
+                    ratingService.flush();
+                }
+            });
+            List<Future<String>> readers = new ArrayList<>();
+            for (int i = 0; i < 2; i++) {
+                readers.add(executor.submit(() -> {
+                    await(start);
+                    while (!done.get()) {
+                        long lowerBound = accepted.get();
+                        long visible = ratingService.pendingCount(PRODUCT_ID, 0);
+                        long upperBound = started.get();
+                        if (visible < lowerBound || visible > upperBound) {
+                            return "видно " + visible + ", ожидалось от " + lowerBound + " до " + upperBound;
+                        }
+                    }
+                    return null;
+                }));
+            }
+            
+            start.countDown();
+            for (Future<?> task : tasks) {
+                task.get(30, TimeUnit.SECONDS);
+            }
+            done.set(true);
+            flusher.get(30, TimeUnit.SECONDS);
+            for (Future<String> reader : readers) {
+                assertEquals(null, reader.get(30, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        
+        long total = (long) submitters * ratingsPerSubmitter;
+        assertEquals(total, ratingService.pendingCount(PRODUCT_ID, 0));
+        
+        failWrites.set(false);
+        ratingService.flush();
+        assertEquals(10 + total, products.get(PRODUCT_ID).getRating().getCount().longValue());
+        assertEquals(0, ratingService.pendingCount(PRODUCT_ID, 0));
+        assertTrue(writes.get() > 0);
+    }
+    
+    private static Product copy(Product product) {
+        Product copy = product(product.getId());
+        copy.setVersion(product.getVersion());
+        copy.setRating(product.getRating());
+        return copy;
+    }
+    
+    private static Product product(Long id) {
+        Product product = new Product();
+        product.setId(id);
+        product.setTitle("product " + id);
+        product.setVersion(0L);
+        product.setRating(new Rating(3.0, 10));
+        return product;
+    }
+    
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
\ No newline at end of file